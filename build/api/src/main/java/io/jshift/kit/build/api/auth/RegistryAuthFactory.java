@@ -2,8 +2,11 @@ package io.jshift.kit.build.api.auth;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import io.jshift.kit.common.KitLogger;
@@ -25,10 +28,34 @@ public class RegistryAuthFactory {
 
     private Function<String, String> decryptor;
 
+    // Resolved credentials per kind, user and registry, so that pushing multiple images or tags
+    // to the same registry asks the handlers only once
+    private final Map<List<Object>, RegistryAuth> authCache = new ConcurrentHashMap<>();
+
     private RegistryAuthFactory() { }
 
     public RegistryAuth createAuthConfig(RegistryAuthConfig.Kind kind, String user, String specificRegistry) throws IOException {
         String registry = specificRegistry != null ? specificRegistry : defaultRegistry;
+        List<Object> cacheKey = Arrays.asList(kind, user, registry);
+        RegistryAuth cached = authCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        RegistryAuth ret = lookupAuthConfig(kind, user, registry);
+        authCache.put(cacheKey, ret);
+        return ret;
+    }
+
+    /**
+     * Forget all credentials resolved so far, including those cached by the handlers,
+     * so that they are looked up again on the next request
+     */
+    public void clearCache() {
+        authCache.clear();
+        registryAuthHandlers.forEach(RegistryAuthHandler::clearCache);
+    }
+
+    private RegistryAuth lookupAuthConfig(RegistryAuthConfig.Kind kind, String user, String registry) throws IOException {
         Optional<RegistryAuth> ret = createRegistryAuthFromHandlers(kind, user, registry);
 
         if (ret.isPresent()) {
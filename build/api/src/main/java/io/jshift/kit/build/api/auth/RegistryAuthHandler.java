@@ -13,6 +13,12 @@ public interface RegistryAuthHandler {
 
     RegistryAuth create(RegistryAuthConfig.Kind kind, String user, String registry, Function<String, String> decryptor);
 
+    /**
+     * Forget any credentials this handler keeps beyond a single lookup
+     */
+    default void clearCache() {
+    }
+
     interface Extender {
         String getId();
         RegistryAuth extend(RegistryAuth given, String registry) throws IOException;
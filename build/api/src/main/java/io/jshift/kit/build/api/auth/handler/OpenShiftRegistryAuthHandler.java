@@ -1,9 +1,6 @@
 package io.jshift.kit.build.api.auth.handler;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -16,6 +13,7 @@ import io.jshift.kit.build.api.auth.RegistryAuth;
 import io.jshift.kit.build.api.auth.RegistryAuthConfig;
 import io.jshift.kit.build.api.auth.RegistryAuthHandler;
 import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.common.util.FileContentCache;
 import org.yaml.snakeyaml.Yaml;
 
 /**
@@ -26,6 +24,10 @@ public class OpenShiftRegistryAuthHandler implements RegistryAuthHandler {
 
     public static final String AUTH_USE_OPENSHIFT_AUTH = "useOpenShiftAuth";
 
+    // Shared between handlers so that the kube config is only parsed again when it changes
+    private static final FileContentCache<Map<String, ?>> KUBE_CONFIG_CACHE =
+        new FileContentCache<>(r -> (Map<String, ?>) new Yaml().load(r));
+
     private final RegistryAuthConfig registryAuthConfig;
     private final KitLogger log;
 
@@ -101,18 +103,8 @@ public class OpenShiftRegistryAuthHandler implements RegistryAuthHandler {
 
     private Map<String, ?> readKubeConfig() {
         String kubeConfig = System.getenv("KUBECONFIG");
-        Optional<Reader> reader =
-            getFileReaderFromDir(kubeConfig == null ? new File(getHomeDir(), ".kube/config") : new File(kubeConfig));
-
-        return (Map<String, ?>) reader.map(r -> new Yaml().load(r)).orElse(null);
-    }
-
-    private Optional<Reader> getFileReaderFromDir(File file) {
-        try {
-            return Optional.of(new FileReader(file));
-        } catch (FileNotFoundException e) {
-            return Optional.empty();
-        }
+        return KUBE_CONFIG_CACHE.get(kubeConfig == null ? new File(getHomeDir(), ".kube/config") : new File(kubeConfig))
+                                .orElse(null);
     }
 
     private File getHomeDir() {
@@ -0,0 +1,75 @@
+package io.jshift.kit.build.api.auth;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import io.jshift.kit.common.KitLogger;
+import mockit.Mocked;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RegistryAuthFactoryTest {
+
+    @Mocked
+    KitLogger log;
+
+    private AtomicInteger lookups;
+
+    private AtomicInteger handlerClears;
+
+    private RegistryAuthFactory factory;
+
+    @Before
+    public void setup() {
+        lookups = new AtomicInteger();
+        handlerClears = new AtomicInteger();
+        factory = new RegistryAuthFactory.Builder()
+            .log(log)
+            .registryAuthConfig(new RegistryAuthConfig.Builder().skipExtendedAuthentication(true).build())
+            .addRegistryAuthHandler(new CountingHandler())
+            .build();
+    }
+
+    @Test
+    public void credentialsResolvedOncePerRegistry() throws IOException {
+        RegistryAuth first = factory.createAuthConfig(RegistryAuthConfig.Kind.PUSH, "roland", "registry1");
+        RegistryAuth second = factory.createAuthConfig(RegistryAuthConfig.Kind.PUSH, "roland", "registry1");
+        assertSame(first, second);
+        assertEquals(1, lookups.get());
+
+        factory.createAuthConfig(RegistryAuthConfig.Kind.PUSH, "roland", "registry2");
+        factory.createAuthConfig(RegistryAuthConfig.Kind.PULL, "roland", "registry1");
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void clearCache() throws IOException {
+        factory.createAuthConfig(RegistryAuthConfig.Kind.PUSH, null, null);
+        factory.clearCache();
+        factory.createAuthConfig(RegistryAuthConfig.Kind.PUSH, null, null);
+        assertEquals(2, lookups.get());
+        assertEquals(1, handlerClears.get());
+    }
+
+    private class CountingHandler implements RegistryAuthHandler {
+        @Override
+        public String getId() {
+            return "counting";
+        }
+
+        @Override
+        public RegistryAuth create(RegistryAuthConfig.Kind kind, String user, String registry, Function<String, String> decryptor) {
+            lookups.incrementAndGet();
+            return new RegistryAuth.Builder().username(user).password("secret").build();
+        }
+
+        @Override
+        public void clearCache() {
+            handlerClears.incrementAndGet();
+        }
+    }
+}
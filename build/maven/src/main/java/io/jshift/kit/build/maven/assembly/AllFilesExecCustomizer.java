@@ -65,7 +65,7 @@ class AllFilesExecCustomizer implements ArchiverCustomizer {
             newMode &= 0755;
             newMode |= 0111;
 
-            if (newMode != mode) {
+            if (newMode != mode && log.isDebugEnabled()) {
                 log.debug("Changing permissions of '%s' from %o to %o.", name, mode, newMode);
             }
 
@@ -432,8 +432,16 @@ public class DockerAssemblyManager {
             builder.workdir(buildConfig.getWorkdir());
         }
         if (assemblyConfig != null) {
-            builder.add(assemblyConfig.getName(), "")
-                   .basedir(assemblyConfig.getTargetDir())
+            List<String> layers = assemblyConfig.getLayers();
+            if (layers != null && !layers.isEmpty()) {
+                for (String layer : layers) {
+                    builder.add(assemblyConfig.getName() + "/" + layer, "");
+                }
+                builder.copyWithChown(true);
+            } else {
+                builder.add(assemblyConfig.getName(), "");
+            }
+            builder.basedir(assemblyConfig.getTargetDir())
                    .assemblyUser(assemblyConfig.getUser())
                    .exportTargetDir(assemblyConfig.getExportTargetDir());
         } else {
@@ -27,7 +27,9 @@ import org.codehaus.plexus.util.ReflectionUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class DockerAssemblyManagerTest {
 
@@ -130,6 +132,40 @@ public class DockerAssemblyManagerTest {
 
     }
 
+    @Test
+    public void testLayeredAssembly() {
+        BuildConfiguration buildConfig = new BuildConfiguration.Builder()
+                .assembly(new AssemblyConfiguration.Builder()
+                        .targetDir("/deployments")
+                        .layers(Arrays.asList("dependencies", "application"))
+                        .build())
+                .build();
+
+        String content = assemblyManager.createDockerFileBuilder(buildConfig, buildConfig.getAssemblyConfiguration()).content();
+
+        assertTrue(content.contains("COPY maven/dependencies /deployments/\nCOPY maven/application /deployments/\n"));
+        assertFalse(content.contains("COPY maven /deployments/"));
+    }
+
+    @Test
+    public void testLayeredAssemblyWithUser() {
+        BuildConfiguration buildConfig = new BuildConfiguration.Builder()
+                .from("fabric8/java-centos-openjdk8-jdk")
+                .assembly(new AssemblyConfiguration.Builder()
+                        .targetDir("/deployments")
+                        .user("jboss:jboss:jboss")
+                        .layers(Arrays.asList("dependencies", "application"))
+                        .build())
+                .build();
+
+        String content = assemblyManager.createDockerFileBuilder(buildConfig, buildConfig.getAssemblyConfiguration()).content();
+
+        assertEquals("FROM fabric8/java-centos-openjdk8-jdk\n" +
+                     "COPY --chown=jboss:jboss maven/dependencies /deployments/\n" +
+                     "COPY --chown=jboss:jboss maven/application /deployments/\n" +
+                     "USER jboss\n", content);
+    }
+
     private BuildConfiguration createBuildConfig() {
         return new BuildConfiguration.Builder()
                 .assembly(new AssemblyConfiguration.Builder()
@@ -3,7 +3,6 @@ package io.jshift.kit.build.service.docker.access.chunked;
 import com.google.gson.JsonObject;
 import io.jshift.kit.build.service.docker.access.DockerAccessException;
 import io.jshift.kit.common.KitLogger;
-import io.jshift.kit.build.service.docker.access.DockerAccessException;
 
 public class PullOrPushResponseJsonHandler implements EntityStreamReaderUtil.JsonEntityResponseHandler {
 
@@ -16,14 +15,19 @@ public class PullOrPushResponseJsonHandler implements EntityStreamReaderUtil.Jso
     @Override
     public void process(JsonObject json) throws DockerAccessException {
         if (json.has("progressDetail")) {
-            log.progressUpdate(getStringOrEmpty(json, "id"),
-                               getStringOrEmpty(json, "status"),
-                               getStringOrEmpty(json, "progress"));
+            // Called for every chunk of a pull or push, so skip the lookups if nothing is shown
+            if (log.isInfoEnabled()) {
+                log.progressUpdate(getStringOrEmpty(json, "id"),
+                                   getStringOrEmpty(json, "status"),
+                                   getStringOrEmpty(json, "progress"));
+            }
         } else if (json.has("error")) {
             throwDockerAccessException(json);
         } else {
             log.progressFinished();
-            logInfoMessage(json);
+            if (log.isInfoEnabled()) {
+                logInfoMessage(json);
+            }
             log.progressStart();
         }
     }
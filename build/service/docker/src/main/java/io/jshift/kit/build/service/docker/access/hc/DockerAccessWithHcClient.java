@@ -351,7 +351,7 @@ public class DockerAccessWithHcClient implements DockerAccess {
         for (int i = 0; i < logElements.size(); i++) {
             JsonObject entry = logElements.get(i).getAsJsonObject();
             for (Object key : entry.keySet()) {
-                log.debug("%s: %s", key, entry.get(key.toString()));
+                log.debug(() -> key + ": " + entry.get(key.toString()));
             }
         }
     }
@@ -120,7 +120,7 @@ final class NamedPipe extends Socket {
         	@Override
         	public int read(byte[] b, int off, int len) throws IOException {
         		int readed = super.read(b, off, len);
-                log.debug("RESPONSE %s", new String(b, off, len, Charset.forName("UTF-8")));
+                log.debug(() -> "RESPONSE " + new String(b, off, len, Charset.forName("UTF-8")));
                 return readed;
         	}
 
@@ -1,13 +1,22 @@
 package io.jshift.kit.build.service.docker.auth;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.JsonObject;
 import io.jshift.kit.build.api.auth.RegistryAuth;
 import io.jshift.kit.common.ExternalCommand;
+import io.jshift.kit.common.ExternalCommandRunner;
 import io.jshift.kit.common.JsonFactory;
 import io.jshift.kit.common.KitLogger;
 
@@ -15,12 +24,43 @@ public class CredentialHelperClient {
 
     static final String SECRET_KEY = "Secret";
     static final String USERNAME_KEY = "Username";
+
+    // How long credentials returned by a helper are reused before the helper is asked again
+    public static final long DEFAULT_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // Maximum number of helper processes running at the same time for parallel lookups
+    private static final int MAX_PARALLEL_LOOKUPS = 4;
+
+    // Helpers which need longer than this are killed
+    private static final long LOOKUP_TIMEOUT_SECONDS = 60;
+
+    // Credential helpers are one-shot processes, so instead of forking them again for every
+    // lookup, versions and replies are remembered per helper for the whole JVM. Cleared by
+    // clearCache(), which RegistryAuthFactory.clearCache() calls through the auth handler.
+    private static final Map<String, Optional<String>> HELPER_VERSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, CachedAuth> AUTH_CACHE = new ConcurrentHashMap<>();
+
     private final String credentialHelperName;
     private final KitLogger log;
+    private final long cacheTtlMillis;
 
     public CredentialHelperClient(KitLogger log, String credentialsStore) {
+        this(log, "docker-credential-" + credentialsStore, DEFAULT_CACHE_TTL_MILLIS);
+    }
+
+    // visible for testing
+    CredentialHelperClient(KitLogger log, String credentialHelperName, long cacheTtlMillis) {
         this.log = log;
-        credentialHelperName = "docker-credential-" + credentialsStore;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.credentialHelperName = credentialHelperName;
+    }
+
+    /**
+     * Forget all cached helper versions and credentials
+     */
+    public static void clearCache() {
+        HELPER_VERSIONS.clear();
+        AUTH_CACHE.clear();
     }
 
     public String getName() {
@@ -28,23 +68,104 @@ public class CredentialHelperClient {
     }
 
     public String getVersion() {
-        try {
-            return new VersionCommand().getVersion();
-        } catch (IOException e) {
-            throw new RuntimeException("Error getting the version of the configured credential helper", e);
-        }
+        return HELPER_VERSIONS.computeIfAbsent(credentialHelperName, name -> {
+            try {
+                return Optional.ofNullable(new VersionCommand().getVersion());
+            } catch (IOException e) {
+                throw new RuntimeException("Error getting the version of the configured credential helper", e);
+            }
+        }).orElse(null);
     }
 
     public RegistryAuth getAuthConfig(String registryToLookup) {
-        try {
-            JsonObject creds = new GetCommand().getCredentialNode(registryToLookup);
-            if (creds == null && !registryToLookup.startsWith("http")) {
-                creds = new GetCommand().getCredentialNode("https://" + registryToLookup);
+        return getAuthConfigs(Collections.singletonList(registryToLookup)).get(registryToLookup);
+    }
+
+    /**
+     * Lookup the credentials for multiple registries. Registries which are not cached yet are
+     * queried in parallel.
+     *
+     * @param registriesToLookup registries to lookup
+     * @return map with the credentials for each registry, the value is null if the helper doesn't know the registry
+     */
+    public Map<String, RegistryAuth> getAuthConfigs(Collection<String> registriesToLookup) {
+        Map<String, CachedAuth> cachedAuths = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String registry : registriesToLookup) {
+            CachedAuth cached = AUTH_CACHE.get(getCacheKey(registry));
+            if (cached != null && !cached.isExpired()) {
+                cachedAuths.put(registry, cached);
+            } else {
+                uncached.add(registry);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            Map<String, RegistryAuth> found = lookupAuthConfigs(uncached);
+            long expiresAt = System.currentTimeMillis() + cacheTtlMillis;
+            for (String registry : uncached) {
+                CachedAuth cached = new CachedAuth(found.get(registry), expiresAt);
+                AUTH_CACHE.put(getCacheKey(registry), cached);
+                cachedAuths.put(registry, cached);
             }
-            return toAuthConfig(creds);
-        } catch (IOException e) {
-            throw new RuntimeException("Error getting the credentials for " + registryToLookup + " from the configured credential helper", e);
         }
+        Map<String, RegistryAuth> ret = new LinkedHashMap<>();
+        for (String registry : registriesToLookup) {
+            ret.put(registry, cachedAuths.get(registry).auth);
+        }
+        return ret;
+    }
+
+    private String getCacheKey(String registry) {
+        return credentialHelperName + "|" + registry;
+    }
+
+    // Registries without a scheme which are unknown to the helper are asked for again with "https://"
+    private Map<String, RegistryAuth> lookupAuthConfigs(List<String> registriesToLookup) {
+        Map<String, RegistryAuth> ret = new LinkedHashMap<>();
+        List<String> retryWithScheme = new ArrayList<>();
+        Map<String, JsonObject> creds = getCredentialNodes(registriesToLookup);
+        for (String registry : registriesToLookup) {
+            JsonObject credential = creds.get(registry);
+            if (credential == null && !registry.startsWith("http")) {
+                retryWithScheme.add("https://" + registry);
+            }
+            ret.put(registry, toAuthConfig(credential));
+        }
+        if (!retryWithScheme.isEmpty()) {
+            Map<String, JsonObject> credsWithScheme = getCredentialNodes(retryWithScheme);
+            for (String registryWithScheme : retryWithScheme) {
+                ret.put(registryWithScheme.substring("https://".length()),
+                        toAuthConfig(credsWithScheme.get(registryWithScheme)));
+            }
+        }
+        return ret;
+    }
+
+    private Map<String, JsonObject> getCredentialNodes(List<String> registries) {
+        List<GetCommand> commands = new ArrayList<>();
+        for (String registry : registries) {
+            commands.add(new GetCommand(registry));
+        }
+        Map<String, JsonObject> ret = new LinkedHashMap<>();
+        for (ExternalCommandRunner.Result<GetCommand> result :
+            new ExternalCommandRunner(MAX_PARALLEL_LOOKUPS).runAll(commands, LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            GetCommand command = result.getCommand();
+            ret.put(command.registry, getCredentialNode(result));
+        }
+        return ret;
+    }
+
+    private JsonObject getCredentialNode(ExternalCommandRunner.Result<GetCommand> result) {
+        GetCommand command = result.getCommand();
+        if (result.isSuccess()) {
+            return command.getCredentialNode();
+        }
+        // Exit code 1 means that the helper doesn't know the registry
+        if (result.getStatusCode() == 1 && !result.isTimedOut()) {
+            return null;
+        }
+        throw new RuntimeException("Error getting the credentials for " + command.registry + " from the configured credential helper",
+                                   result.getError());
     }
 
     private RegistryAuth toAuthConfig(JsonObject credential){
@@ -56,6 +177,20 @@ public class CredentialHelperClient {
         return new RegistryAuth.Builder().username(userKey).password(password).build();
     }
 
+    private static class CachedAuth {
+        private final RegistryAuth auth;
+        private final long expiresAt;
+
+        CachedAuth(RegistryAuth auth, long expiresAt) {
+            this.auth = auth;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
     // docker-credential-XXX version
     private class VersionCommand extends ExternalCommand {
 
@@ -72,7 +207,7 @@ public class CredentialHelperClient {
 
         @Override
         protected void processLine(String line) {
-            log.verbose("Credentials helper reply for \"%s\" is %s",CredentialHelperClient.this.credentialHelperName,line);
+            log.verbose(() -> String.format("Credentials helper reply for \"%s\" is %s",CredentialHelperClient.this.credentialHelperName,line));
             version = line;
         }
 
@@ -88,10 +223,12 @@ public class CredentialHelperClient {
     // echo <registryToLookup> | docker-credential-XXX get
     private class GetCommand extends ExternalCommand {
 
+        private final String registry;
         private List<String> reply = new LinkedList<>();
 
-        GetCommand() {
+        GetCommand(String registry) {
             super(CredentialHelperClient.this.log);
+            this.registry = registry;
         }
 
         @Override
@@ -99,21 +236,17 @@ public class CredentialHelperClient {
             return new String[]{CredentialHelperClient.this.credentialHelperName, "get"};
         }
 
+        @Override
+        public void execute() throws IOException {
+            execute(registry);
+        }
+
         @Override
         protected void processLine(String line) {
             reply.add(line);
         }
 
-        public JsonObject getCredentialNode(String registryToLookup) throws IOException {
-            try {
-                execute(registryToLookup);
-            } catch (IOException ex) {
-                if (getStatusCode() == 1) {
-                    return null;
-                } else {
-                    throw ex;
-                }
-            }
+        JsonObject getCredentialNode() {
             JsonObject credentials =
                 JsonFactory.newJsonObject(String.join("\n", reply));
             if (!credentials.has(SECRET_KEY) || !credentials.has(USERNAME_KEY)) {
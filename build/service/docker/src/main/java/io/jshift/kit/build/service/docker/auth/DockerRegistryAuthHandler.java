@@ -1,9 +1,6 @@
 package io.jshift.kit.build.service.docker.auth;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.Reader;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -13,6 +10,7 @@ import io.jshift.kit.build.api.auth.RegistryAuth;
 import io.jshift.kit.build.api.auth.RegistryAuthConfig;
 import io.jshift.kit.build.api.auth.RegistryAuthHandler;
 import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.common.util.FileContentCache;
 
 /**
  * @author roland
@@ -22,13 +20,14 @@ public class DockerRegistryAuthHandler implements RegistryAuthHandler {
 
     static final String DOCKER_LOGIN_DEFAULT_REGISTRY = "https://index.docker.io/v1/";
 
+    // Shared between handlers so that ~/.docker/config.json is only parsed again when it changes
+    private static final FileContentCache<JsonObject> DOCKER_CONFIG_CACHE =
+        new FileContentCache<>(r -> new Gson().fromJson(r, JsonObject.class));
+
     private final KitLogger log;
-    private final Gson gson;
 
     public DockerRegistryAuthHandler(KitLogger log) {
         this.log = log;
-        this.gson = new Gson();
-
     }
 
     @Override
@@ -41,6 +40,11 @@ public class DockerRegistryAuthHandler implements RegistryAuthHandler {
         return readDockerConfig().map(d -> extractAuthConfigFromDocker(d, registry)).orElse(null);
     }
 
+    @Override
+    public void clearCache() {
+        CredentialHelperClient.clearCache();
+    }
+
     private RegistryAuth extractAuthConfigFromDocker(JsonObject dockerConfig, String registry) {
         String registryToLookup = registry != null ? registry : DOCKER_LOGIN_DEFAULT_REGISTRY;
 
@@ -66,10 +70,9 @@ public class DockerRegistryAuthHandler implements RegistryAuthHandler {
     private Optional<JsonObject> readDockerConfig() {
         String dockerConfig = System.getenv("DOCKER_CONFIG");
 
-        Optional<Reader> reader = dockerConfig == null
-            ? getFileReaderFromDir(new File(getHomeDir(), ".docker/config.json"))
-            : getFileReaderFromDir(new File(dockerConfig, "config.json"));
-        return reader.map(r -> gson.fromJson(r, JsonObject.class));
+        return DOCKER_CONFIG_CACHE.get(dockerConfig == null
+                                           ? new File(getHomeDir(), ".docker/config.json")
+                                           : new File(dockerConfig, "config.json"));
     }
 
     private RegistryAuth extractAuthConfigFromAuths(String registryToLookup, JsonObject auths) {
@@ -84,9 +87,10 @@ public class DockerRegistryAuthHandler implements RegistryAuthHandler {
 
     private RegistryAuth extractAuthConfigFromCredentialsHelper(String registryToLookup, String credConfig) {
         CredentialHelperClient credentialHelper = new CredentialHelperClient(log, credConfig);
-        log.debug("AuthConfig: credentials from credential helper/store %s version %s",
-                  credentialHelper.getName(),
-                  credentialHelper.getVersion());
+        // Querying the version forks the helper process, so only do it when debugging
+        log.debug(() -> String.format("AuthConfig: credentials from credential helper/store %s version %s",
+                                      credentialHelper.getName(),
+                                      credentialHelper.getVersion()));
         return credentialHelper.getAuthConfig(registryToLookup);
     }
 
@@ -103,14 +107,6 @@ public class DockerRegistryAuthHandler implements RegistryAuthHandler {
         return null;
     }
 
-    private Optional<Reader> getFileReaderFromDir(File file) {
-        try {
-            return Optional.of(new FileReader(file));
-        } catch (FileNotFoundException e) {
-            return Optional.empty();
-        }
-    }
-
     private File getHomeDir() {
         String homeDir = Optional.ofNullable(System.getProperty("user.home")).orElse(System.getenv("HOME"));
         return new File(homeDir);
@@ -9,6 +9,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -30,6 +32,27 @@ class AwsSigner4 {
     // a-f must be lower case
     final private static char[] HEXITS = "0123456789abcdef".toCharArray();
 
+    // Mac and MessageDigest are expensive to look up but not thread safe, so reuse them per thread
+    private static final ThreadLocal<Mac> HMAC_SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    });
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    });
+
+    // The signing key only depends on the day, region, service and secret, so it is
+    // computed once per day instead of running the HMAC chain for every request
+    private static final Map<String, SigningKey> SIGNING_KEYS = new ConcurrentHashMap<>();
+
     private final String service;
     private final String region;
 
@@ -99,6 +122,19 @@ class AwsSigner4 {
     }
 
     private static byte[] getSigningKey(AwsSigner4Request sr, RegistryAuth credentials) {
+        String cacheKey = sr.getScope() + '/' + credentials.getUsername();
+        SigningKey signingKey = SIGNING_KEYS.get(cacheKey);
+        if (signingKey != null && signingKey.secret.equals(credentials.getPassword())) {
+            return signingKey.key;
+        }
+        byte[] key = computeSigningKey(sr, credentials);
+        // Keys from previous days are never used again
+        SIGNING_KEYS.keySet().removeIf(k -> !k.startsWith(sr.getSigningDate()));
+        SIGNING_KEYS.put(cacheKey, new SigningKey(credentials.getPassword(), key));
+        return key;
+    }
+
+    private static byte[] computeSigningKey(AwsSigner4Request sr, RegistryAuth credentials) {
         byte[] kSecret = ("AWS4" + credentials.getPassword()).getBytes(StandardCharsets.UTF_8);
         byte[] kDate = hmacSha256(kSecret, sr.getSigningDate());
         byte[] kRegion = hmacSha256(kDate, sr.getRegion());
@@ -144,11 +180,11 @@ class AwsSigner4 {
 
     private static byte[] hmacSha256(byte[] key, String value) {
         try {
-            Mac mac = Mac.getInstance("HmacSHA256");
+            Mac mac = HMAC_SHA256.get();
             mac.init(new SecretKeySpec(key, "HmacSHA256"));
             return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
         }
-        catch (NoSuchAlgorithmException | InvalidKeyException e) {
+        catch (InvalidKeyException e) {
             throw new UnsupportedOperationException(e.getMessage(), e);
         }
     }
@@ -157,14 +193,19 @@ class AwsSigner4 {
         return sha256(string.getBytes(StandardCharsets.UTF_8));
     }
 
-     private static byte[] sha256(byte[] bytes) {
-         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(bytes);
-            return md.digest();
-         }
-         catch (NoSuchAlgorithmException e) {
-             throw new UnsupportedOperationException(e.getMessage(), e);
-         }
+    private static byte[] sha256(byte[] bytes) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return md.digest(bytes);
+    }
+
+    private static class SigningKey {
+        private final String secret;
+        private final byte[] key;
+
+        SigningKey(String secret, byte[] key) {
+            this.secret = secret;
+            this.key = key;
+        }
     }
 }
@@ -5,6 +5,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,6 +21,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 
 /**
  * Exchange local stored credentials for temporary ecr credentials
@@ -32,7 +34,11 @@ public class EcrExtendedAuth {
     private static final Pattern AWS_REGISTRY =
             Pattern.compile("^(\\d{12})\\.dkr\\.ecr\\.([a-z\\-0-9]+)\\.amazonaws\\.com$");
 
+    // Shared, pooled client so that the connection to ECR can be reused for multiple registries and builds
+    private static CloseableHttpClient sharedClient;
+
     private final KitLogger logger;
+    private final EcrTokenCache tokenCache;
     private final boolean isAwsRegistry;
     private final String accountId;
     private final String region;
@@ -43,7 +49,18 @@ public class EcrExtendedAuth {
      * @param registry The registry, we may or may not be an ecr registry.
      */
     public EcrExtendedAuth(KitLogger logger, String registry) {
+        this(logger, registry, EcrTokenCache.getDefault());
+    }
+
+    /**
+     * Initialize an extended authentication for ecr registry.
+     *
+     * @param registry The registry, we may or may not be an ecr registry.
+     * @param tokenCache cache to lookup and store the temporary ECR tokens
+     */
+    public EcrExtendedAuth(KitLogger logger, String registry, EcrTokenCache tokenCache) {
         this.logger = logger;
+        this.tokenCache = tokenCache;
         Matcher matcher = AWS_REGISTRY.matcher(registry);
         isAwsRegistry = matcher.matches();
         if (isAwsRegistry) {
@@ -66,18 +83,29 @@ public class EcrExtendedAuth {
 
     /**
      * Perform extended authentication.  Use the provided credentials as IAM credentials and
-     * get a temporary ECR token.
+     * get a temporary ECR token. Tokens are cached until shortly before they expire.
      *
      * @param localCredentials IAM id/secret
      * @return ECR base64 encoded username:password
      * @throws IOException
      */
     public RegistryAuth extendedAuth(RegistryAuth localCredentials) throws IOException {
+        Optional<RegistryAuth> cached = tokenCache.get(accountId, region, localCredentials);
+        if (cached.isPresent()) {
+            logger.debug("Using cached ECR AuthorizationToken for %s", region);
+            return cached.get();
+        }
+
         JsonObject jo = getAuthorizationToken(localCredentials);
 
         JsonArray authorizationDatas = jo.getAsJsonArray("authorizationData");
         JsonObject authorizationData = authorizationDatas.get(0).getAsJsonObject();
         String authorizationToken = authorizationData.get("authorizationToken").getAsString();
+        if (authorizationData.has("expiresAt")) {
+            // expiresAt is given in seconds since the epoch
+            long expiresAt = (long) (authorizationData.get("expiresAt").getAsDouble() * 1000);
+            tokenCache.put(accountId, region, localCredentials, authorizationToken, expiresAt);
+        }
 
         return new RegistryAuth.Builder().withCredentialsEncoded(authorizationToken).email("none").build();
     }
@@ -88,25 +116,28 @@ public class EcrExtendedAuth {
     }
 
     CloseableHttpClient createClient() {
-        return HttpClients.custom().useSystemProperties().build();
+        synchronized (EcrExtendedAuth.class) {
+            if (sharedClient == null) {
+                sharedClient = HttpClients.custom().useSystemProperties().build();
+            }
+            return sharedClient;
+        }
     }
 
     private JsonObject executeRequest(CloseableHttpClient client, HttpPost request) throws IOException {
-        try {
-            CloseableHttpResponse response = client.execute(request);
+        try (CloseableHttpResponse response = client.execute(request)) {
             int statusCode = response.getStatusLine().getStatusCode();
             logger.debug("Response status %d", statusCode);
+            HttpEntity entity = response.getEntity();
             if (statusCode != HttpStatus.SC_OK) {
+                // Consume the entity so that the pooled connection can be reused
+                EntityUtils.consumeQuietly(entity);
                 throw new SecurityException("AWS authentication failure");
             }
 
-            HttpEntity entity = response.getEntity();
             Reader jr = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8);
             return new Gson().fromJson(jr, JsonObject.class);
         }
-        finally {
-            client.close();
-        }
     }
 
     HttpPost createSignedRequest(RegistryAuth localCredentials, Date time) {
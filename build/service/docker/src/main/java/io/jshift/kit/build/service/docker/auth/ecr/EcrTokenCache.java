@@ -0,0 +1,222 @@
+package io.jshift.kit.build.service.docker.auth.ecr;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import io.jshift.kit.build.api.auth.RegistryAuth;
+
+/**
+ * Cache for ECR authorization tokens. Tokens are valid for several hours, so they are
+ * remembered per account, region and IAM identity until shortly before they expire.
+ * <p>
+ * When a cache directory is given, tokens are also stored on disk so that they can be reused by
+ * subsequent builds. The stored tokens are encrypted with a key derived from the IAM secret, so
+ * only someone who could request a new token anyway is able to read them.
+ */
+public class EcrTokenCache {
+
+    // Tokens are refreshed this long before they expire, so that they don't run out during a push
+    static final long REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+    private static final int IV_LENGTH = 12;
+
+    private static final EcrTokenCache DEFAULT_CACHE =
+        new EcrTokenCache(new File(getHomeDir(), ".jshift/ecr-token-cache"));
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private final File cacheDir;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Create a token cache
+     *
+     * @param cacheDir directory where to store tokens across builds or null if tokens should only be kept in memory
+     */
+    public EcrTokenCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Get the cache shared within this JVM, which persists tokens in the user's home directory
+     */
+    public static EcrTokenCache getDefault() {
+        return DEFAULT_CACHE;
+    }
+
+    /**
+     * Lookup a still valid token
+     *
+     * @param accountId AWS account id
+     * @param region AWS region
+     * @param localCredentials IAM credentials used for requesting the token
+     * @return the cached token as registry auth or an empty optional if no valid token is available
+     */
+    public Optional<RegistryAuth> get(String accountId, String region, RegistryAuth localCredentials) {
+        String key = cacheKey(accountId, region, localCredentials);
+        CachedToken token = tokens.get(key);
+        if (token == null || !token.isValid()) {
+            // Another build might have already refreshed the token
+            token = readToken(key, localCredentials);
+            if (token != null) {
+                tokens.put(key, token);
+            }
+        }
+        if (token == null || !token.isValid()) {
+            return Optional.empty();
+        }
+        return Optional.of(token.toRegistryAuth());
+    }
+
+    /**
+     * Remember a freshly requested token. Tokens which are already about to expire are not cached.
+     *
+     * @param accountId AWS account id
+     * @param region AWS region
+     * @param localCredentials IAM credentials used for requesting the token
+     * @param authorizationToken the base64 encoded token as returned by ECR
+     * @param expiresAt expiry time in milliseconds since the epoch
+     */
+    public void put(String accountId, String region, RegistryAuth localCredentials, String authorizationToken, long expiresAt) {
+        CachedToken token = new CachedToken(authorizationToken, expiresAt);
+        if (!token.isValid()) {
+            return;
+        }
+        String key = cacheKey(accountId, region, localCredentials);
+        tokens.put(key, token);
+        writeToken(key, localCredentials, token);
+    }
+
+    /**
+     * Forget all tokens kept in memory
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    // ==========================================================================================
+
+    private CachedToken readToken(String key, RegistryAuth localCredentials) {
+        if (cacheDir == null) {
+            return null;
+        }
+        File file = new File(cacheDir, key + ".json");
+        if (!file.isFile()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            JsonObject json = new Gson().fromJson(reader, JsonObject.class);
+            if (json == null || !json.has("expiresAt") || !json.has("iv") || !json.has("token")) {
+                return null;
+            }
+            long expiresAt = json.get("expiresAt").getAsLong();
+            byte[] iv = Base64.getDecoder().decode(json.get("iv").getAsString());
+            byte[] encrypted = Base64.getDecoder().decode(json.get("token").getAsString());
+            byte[] decrypted = createCipher(Cipher.DECRYPT_MODE, localCredentials, iv).doFinal(encrypted);
+            return new CachedToken(new String(decrypted, StandardCharsets.UTF_8), expiresAt);
+        } catch (IOException | GeneralSecurityException | JsonParseException | IllegalArgumentException e) {
+            // Unreadable or tampered cache files are ignored and replaced by the next token
+            return null;
+        }
+    }
+
+    private void writeToken(String key, RegistryAuth localCredentials, CachedToken token) {
+        if (cacheDir == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheDir.toPath());
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            byte[] encrypted = createCipher(Cipher.ENCRYPT_MODE, localCredentials, iv)
+                .doFinal(token.authorizationToken.getBytes(StandardCharsets.UTF_8));
+
+            JsonObject json = new JsonObject();
+            json.addProperty("expiresAt", token.expiresAt);
+            json.addProperty("iv", Base64.getEncoder().encodeToString(iv));
+            json.addProperty("token", Base64.getEncoder().encodeToString(encrypted));
+
+            // Write to a temporary file first so that concurrent builds never see a partial file
+            File tmp = File.createTempFile(key, ".tmp", cacheDir);
+            try {
+                try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                    new Gson().toJson(json, writer);
+                }
+                Files.move(tmp.toPath(), new File(cacheDir, key + ".json").toPath(),
+                           StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            // Persisting is only an optimization, the token is still cached in memory
+        }
+    }
+
+    private Cipher createCipher(int mode, RegistryAuth localCredentials, byte[] iv) throws GeneralSecurityException {
+        byte[] key = sha256("jshift-ecr-token-cache:" + localCredentials.getPassword());
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(GCM_TAG_BITS, iv));
+        return cipher;
+    }
+
+    private static String cacheKey(String accountId, String region, RegistryAuth localCredentials) {
+        // Session tokens are part of the identity, temporary credentials must not share a cached token
+        StringBuilder sb = new StringBuilder();
+        AwsSigner4.hexEncode(sb, sha256(accountId + "|" + region + "|" + localCredentials.getUsername() + "|" +
+                                        Optional.ofNullable(localCredentials.getAuth()).orElse("")));
+        return sb.toString();
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnsupportedOperationException(e.getMessage(), e);
+        }
+    }
+
+    private static File getHomeDir() {
+        String homeDir = Optional.ofNullable(System.getProperty("user.home")).orElse(System.getenv("HOME"));
+        return new File(homeDir);
+    }
+
+    private static class CachedToken {
+        private final String authorizationToken;
+        private final long expiresAt;
+
+        CachedToken(String authorizationToken, long expiresAt) {
+            this.authorizationToken = authorizationToken;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() + REFRESH_MARGIN_MILLIS < expiresAt;
+        }
+
+        RegistryAuth toRegistryAuth() {
+            return new RegistryAuth.Builder().withCredentialsEncoded(authorizationToken).email("none").build();
+        }
+    }
+}
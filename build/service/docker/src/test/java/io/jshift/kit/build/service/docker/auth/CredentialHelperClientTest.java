@@ -0,0 +1,144 @@
+package io.jshift.kit.build.service.docker.auth;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import io.jshift.kit.build.api.auth.RegistryAuth;
+import io.jshift.kit.common.KitLogger;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeFalse;
+
+public class CredentialHelperClientTest {
+
+    @Mocked
+    private KitLogger log;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File helper;
+    private File calls;
+
+    @Before
+    public void setup() throws IOException {
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("windows"));
+        CredentialHelperClient.clearCache();
+
+        // Fake helper which records its calls and only knows "registry1"
+        calls = new File(folder.getRoot(), "calls");
+        helper = new File(folder.getRoot(), "docker-credential-test");
+        Files.write(helper.toPath(), Arrays.asList(
+            "#!/bin/sh",
+            "if [ \"$1\" = version ]; then",
+            "  echo version >> " + calls.getAbsolutePath(),
+            "  echo 0.6.0",
+            "  exit 0",
+            "fi",
+            "read registry",
+            "echo \"get $registry\" >> " + calls.getAbsolutePath(),
+            "if [ \"$registry\" = registry1 ]; then",
+            "  echo '{\"ServerURL\":\"registry1\",\"Username\":\"roland\",\"Secret\":\"s3cr3t\"}'",
+            "  exit 0",
+            "fi",
+            "echo 'credentials not found in native keychain'",
+            "exit 1"
+        ), StandardCharsets.UTF_8);
+        helper.setExecutable(true);
+    }
+
+    @After
+    public void clearCache() {
+        CredentialHelperClient.clearCache();
+    }
+
+    @Test
+    public void versionIsProbedOnce() throws IOException {
+        assertEquals("0.6.0", createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS).getVersion());
+        assertEquals("0.6.0", createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS).getVersion());
+        assertEquals(Collections.singletonList("version"), readCalls());
+    }
+
+    @Test
+    public void credentialsAreCached() throws IOException {
+        CredentialHelperClient client = createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS);
+
+        RegistryAuth auth = client.getAuthConfig("registry1");
+        assertEquals("roland", auth.getUsername());
+        assertEquals("s3cr3t", auth.getPassword());
+        assertSame(auth, createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS).getAuthConfig("registry1"));
+        assertEquals(Collections.singletonList("get registry1"), readCalls());
+    }
+
+    @Test
+    public void unknownRegistriesAreCached() throws IOException {
+        CredentialHelperClient client = createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS);
+
+        assertNull(client.getAuthConfig("registry2"));
+        assertNull(client.getAuthConfig("registry2"));
+        assertEquals(Arrays.asList("get registry2", "get https://registry2"), readCalls());
+    }
+
+    @Test
+    public void multipleRegistriesAreLookedUpTogether() throws IOException {
+        CredentialHelperClient client = createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS);
+        client.getAuthConfig("registry1");
+
+        Map<String, RegistryAuth> auths = client.getAuthConfigs(Arrays.asList("registry2", "registry1", "registry3"));
+        assertEquals(Arrays.asList("registry2", "registry1", "registry3"), new ArrayList<>(auths.keySet()));
+        assertEquals("roland", auths.get("registry1").getUsername());
+        assertNull(auths.get("registry2"));
+        assertNull(auths.get("registry3"));
+
+        // The cached registry is not asked for again, the others are queried in parallel
+        List<String> calls = readCalls();
+        assertEquals("get registry1", calls.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("get registry2", "get registry3",
+                                                 "get https://registry2", "get https://registry3")),
+                     new HashSet<>(calls.subList(1, calls.size())));
+        assertEquals(5, calls.size());
+    }
+
+    @Test
+    public void expiredCredentialsAreLookedUpAgain() throws IOException {
+        CredentialHelperClient client = createClient(0);
+
+        client.getAuthConfig("registry1");
+        client.getAuthConfig("registry1");
+        assertEquals(Arrays.asList("get registry1", "get registry1"), readCalls());
+    }
+
+    @Test
+    public void clearCacheForgetsCredentials() throws IOException {
+        CredentialHelperClient client = createClient(CredentialHelperClient.DEFAULT_CACHE_TTL_MILLIS);
+
+        client.getAuthConfig("registry1");
+        new DockerRegistryAuthHandler(log).clearCache();
+        client.getAuthConfig("registry1");
+        assertEquals(Arrays.asList("get registry1", "get registry1"), readCalls());
+    }
+
+    private CredentialHelperClient createClient(long cacheTtlMillis) {
+        return new CredentialHelperClient(log, helper.getAbsolutePath(), cacheTtlMillis);
+    }
+
+    private List<String> readCalls() throws IOException {
+        return calls.exists() ? Files.readAllLines(calls.toPath(), StandardCharsets.UTF_8) : Collections.emptyList();
+    }
+}
@@ -70,6 +70,30 @@ public class AwsSigner4RequestTest {
         Assert.assertEquals(TASK4, signer.task4(sr, credentials));
     }
 
+    @Test
+    public void cachedSigningKeyNotSharedBetweenSecrets() throws Exception {
+        Date signingTime = AwsSigner4Request.TIME_FORMAT.parse("20150830T123600Z");
+        AwsSigner4 signer = new AwsSigner4("us-east-1", "ecr");
+        RegistryAuth credentials =
+            new RegistryAuth.Builder()
+                .username("AKIDEXAMPLE")
+                .password("wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY")
+                .build();
+        RegistryAuth otherCredentials =
+            new RegistryAuth.Builder()
+                .username("AKIDEXAMPLE")
+                .password("anotherSecret")
+                .build();
+
+        HttpUriRequest request = newGet("https://ecr.us-east-1.amazonaws.com/");
+        request.setHeader("host", request.getURI().getHost());
+        AwsSigner4Request sr = new AwsSigner4Request("us-east-1", "service", request, signingTime);
+        String signature = signer.task4(sr, credentials);
+        Assert.assertEquals(signature, signer.task4(sr, credentials));
+        Assert.assertNotEquals(signature, signer.task4(sr, otherCredentials));
+        Assert.assertEquals(signature, signer.task4(sr, credentials));
+    }
+
     @Test
     public void includesAuthTokenAsAwsSecurityToken() {
         HttpUriRequest request = newGet("https://someService.us-east-1.amazonaws.com/");
@@ -92,7 +92,7 @@ public class DockerRegistryAuthHandlerTest {
             expectedException.expect(RuntimeException.class);
             expectedException.expectCause(Matchers.<Throwable>allOf(
                     instanceOf(IOException.class),
-                    hasProperty("message",startsWith("Failed to start 'docker-credential-credHelper1-does-not-exist version'"))
+                    hasProperty("message",startsWith("Failed to start 'docker-credential-credHelper1-does-not-exist get'"))
                                                                    ));
             handler.create(RegistryAuthConfig.Kind.PUSH, "roland", "registry1", s->s);
         });
@@ -105,7 +105,7 @@ public class DockerRegistryAuthHandlerTest {
             expectedException.expect(RuntimeException.class);
             expectedException.expectCause(Matchers.allOf(
                     instanceOf(IOException.class),
-                    hasProperty("message",startsWith("Failed to start 'docker-credential-credsStore-does-not-exist version'"))
+                    hasProperty("message",startsWith("Failed to start 'docker-credential-credsStore-does-not-exist get'"))
                                                         ));
             handler.create(RegistryAuthConfig.Kind.PUSH, "roland", null, s->s);
         });
@@ -119,7 +119,7 @@ public class DockerRegistryAuthHandlerTest {
             expectedException.expect(RuntimeException.class);
             expectedException.expectCause(Matchers.allOf(
                     instanceOf(IOException.class),
-                    hasProperty("message",startsWith("Failed to start 'docker-credential-credsStore-does-not-exist version'"))
+                    hasProperty("message",startsWith("Failed to start 'docker-credential-credsStore-does-not-exist get'"))
                                                         ));
             handler.create(RegistryAuthConfig.Kind.PUSH, "roland", "registry2", s->s);
         });
@@ -1,8 +1,10 @@
 package io.jshift.kit.build.service.docker.auth.ecr;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import io.jshift.kit.build.api.auth.RegistryAuth;
 import io.jshift.kit.common.KitLogger;
@@ -15,7 +17,9 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -32,6 +36,9 @@ public class EcrExtendedAuthTest {
     @Mocked
     private KitLogger logger;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testIsNotAws() {
         assertFalse(new EcrExtendedAuth(logger, "jolokia").isAwsRegistry());
@@ -58,7 +65,7 @@ public class EcrExtendedAuthTest {
     }
 
     @Test
-    public void testClientClosedAndCredentialsDecoded(@Mocked final CloseableHttpClient closeableHttpClient,
+    public void testResponseClosedAndCredentialsDecoded(@Mocked final CloseableHttpClient closeableHttpClient,
             @Mocked final CloseableHttpResponse closeableHttpResponse,
             @Mocked final StatusLine statusLine)
         throws IOException {
@@ -72,7 +79,7 @@ public class EcrExtendedAuthTest {
             statusLine.getStatusCode(); result = 200;
             closeableHttpResponse.getEntity(); result = entity;
         }};
-        EcrExtendedAuth eea = new EcrExtendedAuth(logger, "123456789012.dkr.ecr.eu-west-1.amazonaws.com") {
+        EcrExtendedAuth eea = new EcrExtendedAuth(logger, "123456789012.dkr.ecr.eu-west-1.amazonaws.com", new EcrTokenCache(null)) {
             CloseableHttpClient createClient() {
                 return closeableHttpClient;
             }
@@ -88,8 +95,57 @@ public class EcrExtendedAuthTest {
         assertEquals("password", awsCredentials.getPassword());
 
         new Verifications() {{
-             closeableHttpClient.close();
+             closeableHttpResponse.close();
          }};
     }
 
+    @Test
+    public void testTokenCachedUntilExpiry(@Mocked final CloseableHttpClient closeableHttpClient,
+            @Mocked final CloseableHttpResponse closeableHttpResponse,
+            @Mocked final StatusLine statusLine)
+        throws IOException {
+
+        double expiresAt = (System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12)) / 1000.0;
+        final HttpEntity entity = new StringEntity("{\"authorizationData\": [{"
+                                                   + "\"authorizationToken\": \"QVdTOnBhc3N3b3Jk\","
+                                                   + "\"expiresAt\": " + expiresAt + ","
+                                                   + "\"proxyEndpoint\": \"https://012345678910.dkr.ecr.eu-west-1.amazonaws.com\"}]}");
+
+        new Expectations() {{
+            statusLine.getStatusCode(); result = 200;
+            closeableHttpResponse.getEntity(); result = entity;
+        }};
+        File cacheDir = folder.newFolder("ecr-token-cache");
+        RegistryAuth localCredentials =
+            new RegistryAuth.Builder()
+                .username("username")
+                .password("password")
+                .build();
+
+        EcrExtendedAuth eea = createEcrExtendedAuth(closeableHttpClient, new EcrTokenCache(cacheDir));
+        eea.extendedAuth(localCredentials);
+        assertEquals("password", eea.extendedAuth(localCredentials).getPassword());
+
+        // A new cache on the same directory, like in a subsequent build, reads the persisted token
+        RegistryAuth awsCredentials = createEcrExtendedAuth(closeableHttpClient, new EcrTokenCache(cacheDir))
+            .extendedAuth(localCredentials);
+        assertEquals("AWS", awsCredentials.getUsername());
+        assertEquals("password", awsCredentials.getPassword());
+        // Only the persisted token is left behind, no temporary files
+        assertEquals(1, cacheDir.list().length);
+        assertTrue(cacheDir.list()[0].endsWith(".json"));
+
+        new Verifications() {{
+            closeableHttpClient.execute((HttpPost) any); times = 1;
+        }};
+    }
+
+    private EcrExtendedAuth createEcrExtendedAuth(CloseableHttpClient client, EcrTokenCache tokenCache) {
+        return new EcrExtendedAuth(logger, "123456789012.dkr.ecr.eu-west-1.amazonaws.com", tokenCache) {
+            CloseableHttpClient createClient() {
+                return client;
+            }
+        };
+    }
+
 }
@@ -3,6 +3,7 @@ package io.jshift.kit.common;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 import org.fusesource.jansi.Ansi;
@@ -77,6 +78,13 @@ public class AnsiLoggerFacade implements KitLogger {
         }
     }
 
+    /** {@inheritDoc} */
+    public void debug(Supplier<String> messageSupplier) {
+        if (isDebugEnabled()) {
+            log.debug(prefix + messageSupplier.get());
+        }
+    }
+
     /** {@inheritDoc} */
     public void info(String message, Object... params) {
         log.info(colored(message, COLOR_INFO, true, params));
@@ -89,6 +97,13 @@ public class AnsiLoggerFacade implements KitLogger {
         }
     }
 
+    /** {@inheritDoc} */
+    public void verbose(Supplier<String> messageSupplier) {
+        if (verbose) {
+            log.info(ansi().fgBright(BLACK).a(prefix).a(messageSupplier.get()).reset().toString());
+        }
+    }
+
     /** {@inheritDoc} */
     public void warn(String format, Object... params) {
         log.warn(colored(format, COLOR_WARNING, true, params));
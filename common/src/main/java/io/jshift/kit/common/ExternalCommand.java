@@ -16,20 +16,25 @@ package io.jshift.kit.common;
  * limitations under the License.
  */
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.util.concurrent.Callable;
+import java.nio.charset.Charset;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,10 +45,21 @@ import org.apache.commons.lang3.StringUtils;
 public abstract class ExternalCommand {
     protected final KitLogger log;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    // Maximum number of pooled threads for pumping the error streams of all running commands
+    private static final int MAX_PUMP_THREADS = 16;
+
+    // Shared by all commands, so that many short lived commands don't create (and leak) their own pools.
+    // Idle threads are released after a minute, and if all threads are busy a dedicated thread is used
+    // so that a stream is never left undrained.
+    private static final ExecutorService PUMP_EXECUTOR = createPumpExecutor();
+
+    private static final int BUFFER_SIZE = 8192;
 
     private int statusCode;
 
+    private volatile Process process;
+    private volatile boolean cancelled;
+
     public ExternalCommand(KitLogger log) {
         this.log = log;
     }
@@ -54,21 +70,31 @@ public abstract class ExternalCommand {
 
     public void execute(String processInput) throws IOException {
         final Process process = startProcess();
+        this.process = process;
+        if (cancelled) {
+            process.destroy();
+        }
         start();
         try {
             inputStreamPump(process.getOutputStream(),processInput);
 
-            Future<IOException> stderrFuture = startStreamPump(process.getErrorStream());
+            Future<IOException> stderrFuture = redirectErrorStream() ? null : startStreamPump(process.getErrorStream());
             outputStreamPump(process.getInputStream());
 
-            stopStreamPump(stderrFuture);
+            if (stderrFuture != null) {
+                stopStreamPump(stderrFuture);
+            }
             checkProcessExit(process);
         } catch (IOException e) {
             process.destroy();
             throw e;
         } finally {
+            this.process = null;
             end();
         }
+        if (cancelled) {
+            throw new IOException(String.format("Process '%s' has been cancelled", getCommandAsString()));
+        }
         if (statusCode != 0) {
             throw new IOException(String.format("Process '%s' exited with status %d",
                                                 getCommandAsString(), statusCode));
@@ -76,11 +102,55 @@ public abstract class ExternalCommand {
 
     }
 
+    /**
+     * Cancel the command by killing its process. If the command has not been started yet,
+     * its process is killed right after start. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        Process running = process;
+        if (running != null) {
+            running.destroyForcibly();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
     // Hooks for logging ...
     protected void start() {}
 
     protected void end() {}
 
+    // Hooks for configuring the process ...
+
+    /**
+     * Working directory of the process
+     *
+     * @return the working directory or null if the current directory should be used
+     */
+    protected File getWorkingDirectory() {
+        return null;
+    }
+
+    /**
+     * Additional environment variables for the process
+     *
+     * @return environment variables to add or null if the environment should be inherited unchanged
+     */
+    protected Map<String, String> getEnvironment() {
+        return null;
+    }
+
+    /**
+     * Whether the error stream should be merged into the output stream. If so, error output is handed
+     * to {@link #processLine(String)} and no extra thread is needed for pumping the error stream.
+     */
+    protected boolean redirectErrorStream() {
+        return false;
+    }
+
     protected int getStatusCode() {
         return statusCode;
     }
@@ -88,8 +158,6 @@ public abstract class ExternalCommand {
     private void checkProcessExit(Process process) {
         try {
             statusCode = process.waitFor();
-            executor.shutdown();
-            executor.awaitTermination(10, TimeUnit.SECONDS);
         } catch (IllegalThreadStateException | InterruptedException e) {
             process.destroy();
             statusCode = -1;
@@ -109,7 +177,14 @@ public abstract class ExternalCommand {
 
     private Process startProcess() throws IOException {
         try {
-            return Runtime.getRuntime().exec(getArgs());
+            ProcessBuilder builder = new ProcessBuilder(getArgs())
+                .directory(getWorkingDirectory())
+                .redirectErrorStream(redirectErrorStream());
+            Map<String, String> env = getEnvironment();
+            if (env != null) {
+                builder.environment().putAll(env);
+            }
+            return builder.start();
         } catch (IOException e) {
             throw new IOException(String.format("Failed to start '%s' : %s",
                                                 getCommandAsString(),
@@ -124,14 +199,8 @@ public abstract class ExternalCommand {
     protected abstract String[] getArgs();
 
     private void outputStreamPump(final InputStream inputStream) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            for (; ; ) {
-                String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                processLine(line);
-            }
+        try (InputStream in = inputStream) {
+            readLines(in, this::processLine);
         } catch (IOException e) {
             throw new IOException(String.format("Failed to read process '%s' output: %s",
                                                 getCommandAsString(),
@@ -144,23 +213,16 @@ public abstract class ExternalCommand {
     }
 
     private Future<IOException> startStreamPump(final InputStream errorStream) {
-        return executor.submit(new Callable<IOException>() {
-            @Override
-            public IOException call() {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream));) {
-                    for (; ; ) {
-                        String line = reader.readLine();
-                        if (line == null) {
-                            break;
-                        }
-                        synchronized (log) {
-                            log.warn(line);
-                        }
+        return PUMP_EXECUTOR.submit(() -> {
+            try (InputStream in = errorStream) {
+                readLines(in, line -> {
+                    synchronized (log) {
+                        log.warn(line);
                     }
-                    return null;
-                } catch (IOException e) {
-                    return e;
-                }
+                });
+                return null;
+            } catch (IOException e) {
+                return e;
             }
         });
     }
@@ -179,4 +241,47 @@ public abstract class ExternalCommand {
                                                 getCommandAsString()), e);
         }
     }
+
+    // Drain a stream in blocks and split it into lines, without going through a Reader for every char
+    private static void readLines(InputStream in, Consumer<String> lineConsumer) throws IOException {
+        Charset charset = Charset.defaultCharset();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    line.write(buffer, start, i - start);
+                    lineConsumer.accept(toLine(line, charset));
+                    line.reset();
+                    start = i + 1;
+                }
+            }
+            line.write(buffer, start, read - start);
+        }
+        if (line.size() > 0) {
+            lineConsumer.accept(toLine(line, charset));
+        }
+    }
+
+    private static String toLine(ByteArrayOutputStream line, Charset charset) {
+        String ret = new String(line.toByteArray(), charset);
+        return ret.endsWith("\r") ? ret.substring(0, ret.length() - 1) : ret;
+    }
+
+    private static ExecutorService createPumpExecutor() {
+        ThreadFactory threadFactory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "external-command-pump-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        return new ThreadPoolExecutor(0, MAX_PUMP_THREADS, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                                      threadFactory, (runnable, executor) -> threadFactory.newThread(runnable).start());
+    }
 }
@@ -0,0 +1,157 @@
+package io.jshift.kit.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a batch of {@link ExternalCommand}s concurrently. Every command gets its own deadline,
+ * counted from the moment it is started, and is cancelled when it doesn't finish in time.
+ */
+public class ExternalCommandRunner {
+
+    private final int parallelism;
+
+    /**
+     * Create a runner
+     *
+     * @param parallelism maximum number of commands running at the same time
+     */
+    public ExternalCommandRunner(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, not " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Run all given commands and wait until all of them have finished, failed or timed out.
+     *
+     * @param commands commands to run. Each command must not be used elsewhere while running.
+     * @param timeout maximum time each command may run
+     * @param unit unit of the timeout
+     * @param <C> type of the commands
+     * @return results in the same order as the given commands
+     */
+    public <C extends ExternalCommand> List<Result<C>> runAll(List<C> commands, long timeout, TimeUnit unit) {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, commands.size()),
+                                                                daemonThreadFactory("external-command-runner"));
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("external-command-timer"));
+        try {
+            List<Future<Result<C>>> futures = new ArrayList<>();
+            for (C command : commands) {
+                futures.add(executor.submit(() -> run(command, timer, timeout, unit)));
+            }
+            List<Result<C>> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(waitFor(commands.get(i), futures.get(i)));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Cancel all given commands, e.g. when the batch should be aborted from another thread.
+     *
+     * @param commands commands to cancel
+     */
+    public static void cancelAll(List<? extends ExternalCommand> commands) {
+        commands.forEach(ExternalCommand::cancel);
+    }
+
+    private <C extends ExternalCommand> Result<C> run(C command, ScheduledExecutorService timer, long timeout, TimeUnit unit) {
+        // Set before cancelling, since the command may already fail while the deadline task is still running
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = timer.schedule(() -> {
+            expired.set(true);
+            command.cancel();
+        }, timeout, unit);
+        try {
+            command.execute();
+            return new Result<>(command, command.getStatusCode(), null, false);
+        } catch (IOException e) {
+            // A command cancelled by its deadline is reported as timed out, not as failed
+            return new Result<>(command, command.getStatusCode(), e, expired.get());
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    private <C extends ExternalCommand> Result<C> waitFor(C command, Future<Result<C>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.cancel();
+            return new Result<>(command, -1, new IOException("Interrupted while waiting for '" + command.getCommandAsString() + "'", e), false);
+        } catch (ExecutionException e) {
+            return new Result<>(command, -1, new IOException("Failed to run '" + command.getCommandAsString() + "'", e.getCause()), false);
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Outcome of a single command. The output itself is available from the command,
+     * which collects it in its {@link ExternalCommand#processLine(String)} hook.
+     *
+     * @param <C> type of the command
+     */
+    public static class Result<C extends ExternalCommand> {
+        private final C command;
+        private final int statusCode;
+        private final IOException error;
+        private final boolean timedOut;
+
+        Result(C command, int statusCode, IOException error, boolean timedOut) {
+            this.command = command;
+            this.statusCode = statusCode;
+            this.error = error;
+            this.timedOut = timedOut;
+        }
+
+        public C getCommand() {
+            return command;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public IOException getError() {
+            return error;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        public boolean isSuccess() {
+            return error == null && statusCode == 0;
+        }
+    }
+}
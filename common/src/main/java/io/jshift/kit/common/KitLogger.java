@@ -1,5 +1,7 @@
 package io.jshift.kit.common;
 
+import java.util.function.Supplier;
+
 /**
  * @author roland
  * @since 30.05.17
@@ -14,6 +16,18 @@ public interface KitLogger {
      */
     void debug(String format, Object... params);
 
+    /**
+     * Debug message which is only computed if debugging is enabled. Use this
+     * variant when building the message is expensive.
+     *
+     * @param messageSupplier supplier for the debug message
+     */
+    default void debug(Supplier<String> messageSupplier) {
+        if (isDebugEnabled()) {
+            debug("%s", messageSupplier.get());
+        }
+    }
+
     /**
      * Informational message
      *
@@ -34,6 +48,17 @@ public interface KitLogger {
         }
     }
 
+    /**
+     * Verbose message which is only computed if verbose output is enabled.
+     *
+     * @param messageSupplier supplier for the verbose message
+     */
+    default void verbose(Supplier<String> messageSupplier) {
+        if (isVerboseEnabled()) {
+            verbose("%s", messageSupplier.get());
+        }
+    }
+
     /**
      * A warning.
      *
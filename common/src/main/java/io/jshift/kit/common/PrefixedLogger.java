@@ -1,6 +1,6 @@
 package io.jshift.kit.common;
 
-
+import java.util.function.Supplier;
 
 /**
  * @author roland
@@ -20,6 +20,11 @@ public class PrefixedLogger implements KitLogger {
         log.debug(p(message), objects);
     }
 
+    @Override
+    public void debug(Supplier<String> messageSupplier) {
+        log.debug(() -> p(messageSupplier.get()));
+    }
+
     @Override
     public void info(String message, Object... objects) {
         log.info(p(message),objects);
@@ -30,6 +35,11 @@ public class PrefixedLogger implements KitLogger {
         log.verbose(p(message), objects);
     }
 
+    @Override
+    public void verbose(Supplier<String> messageSupplier) {
+        log.verbose(() -> p(messageSupplier.get()));
+    }
+
     @Override
     public void warn(String message, Object... objects) {
         log.warn(p(message), objects);
@@ -0,0 +1,187 @@
+package io.jshift.kit.common.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache for class loaders over a project's classpath, so that generators and other
+ * components looking into the project share one class loader and its open jar files
+ * instead of creating a new one for every lookup.
+ * <p>
+ * Class loaders are keyed by their parent and their classpath. A class loader is
+ * replaced when one of its jar files has changed on disk. Cached class loaders
+ * must not be closed by their users. Class loaders which have only been handed out
+ * within sessions started with {@link #beginSession()} are closed when the last running
+ * session ends. Class loaders handed out outside of a session are never closed by a
+ * session, only by {@link #closeAll()}. Threads started within a session belong to that session.
+ */
+public class ClassLoaderCache {
+
+    private static final Map<ClassLoader, Map<List<String>, Entry>> CACHE = new HashMap<>();
+
+    // Replaced class loaders which are still used within a running session
+    private static final List<URLClassLoader> REPLACED = new ArrayList<>();
+
+    // Number of sessions which have begun but not yet ended
+    private static int sessions;
+
+    // Number of sessions the current thread is running in
+    private static final ThreadLocal<Integer> THREAD_SESSIONS = new InheritableThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return 0;
+        }
+    };
+
+    private ClassLoaderCache() { }
+
+    /**
+     * Get a class loader for the given classpath, creating it if necessary
+     *
+     * @param urls classpath of the class loader
+     * @param parent parent class loader
+     * @return the shared class loader, which must not be closed by the caller
+     */
+    public static synchronized URLClassLoader getClassLoader(List<URL> urls, ClassLoader parent) {
+        List<String> key = new ArrayList<>();
+        for (URL url : urls) {
+            key.add(url.toExternalForm());
+        }
+        boolean inSession = THREAD_SESSIONS.get() > 0;
+        List<Long> fingerprint = getFingerprint(urls);
+        Map<List<String>, Entry> entries = CACHE.computeIfAbsent(parent, k -> new HashMap<>());
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.fingerprint.equals(fingerprint)) {
+                entry.usedOutsideSession |= !inSession;
+                return entry.classLoader;
+            }
+            // Callers might still hold on to the replaced class loader, so it is closed
+            // only when the sessions end. Class loaders used outside a session are left to the GC.
+            if (!entry.usedOutsideSession) {
+                REPLACED.add(entry.classLoader);
+            }
+        }
+        URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[0]), parent);
+        entries.put(key, new Entry(classLoader, fingerprint, !inSession));
+        return classLoader;
+    }
+
+    /**
+     * Begin a session using cached class loaders in the current thread. Every call must be followed
+     * by a call to {@link #endSession()} in the same thread.
+     */
+    public static synchronized void beginSession() {
+        sessions++;
+        THREAD_SESSIONS.set(THREAD_SESSIONS.get() + 1);
+    }
+
+    /**
+     * End a session begun with {@link #beginSession()}. When no other session is running,
+     * all class loaders which have been used only within sessions are closed.
+     *
+     * @throws IOException if closing a class loader fails
+     */
+    public static synchronized void endSession() throws IOException {
+        int threadSessions = THREAD_SESSIONS.get();
+        if (threadSessions == 0) {
+            return;
+        }
+        THREAD_SESSIONS.set(threadSessions - 1);
+        if (--sessions > 0) {
+            return;
+        }
+        List<URLClassLoader> classLoaders = new ArrayList<>(REPLACED);
+        REPLACED.clear();
+        for (Map<List<String>, Entry> entries : CACHE.values()) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (!entry.usedOutsideSession) {
+                    classLoaders.add(entry.classLoader);
+                    it.remove();
+                }
+            }
+        }
+        close(classLoaders);
+    }
+
+    /**
+     * Close all class loaders handed out so far and forget about them.
+     *
+     * @throws IOException if closing a class loader fails. All class loaders are closed nevertheless.
+     */
+    public static synchronized void closeAll() throws IOException {
+        List<URLClassLoader> classLoaders = new ArrayList<>(REPLACED);
+        for (Map<List<String>, Entry> entries : CACHE.values()) {
+            for (Entry entry : entries.values()) {
+                classLoaders.add(entry.classLoader);
+            }
+        }
+        CACHE.clear();
+        REPLACED.clear();
+        close(classLoaders);
+    }
+
+    private static void close(List<URLClassLoader> classLoaders) throws IOException {
+        IOException error = null;
+        for (URLClassLoader classLoader : classLoaders) {
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    // Size and modification time of all jar files. Directories are always read live by the class loader.
+    private static List<Long> getFingerprint(List<URL> urls) {
+        List<Long> ret = new ArrayList<>();
+        for (URL url : urls) {
+            File file = toFile(url);
+            if (file != null && file.isFile()) {
+                ret.add(file.length());
+                ret.add(file.lastModified());
+            }
+        }
+        return ret;
+    }
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class Entry {
+        private final URLClassLoader classLoader;
+        private final List<Long> fingerprint;
+        private boolean usedOutsideSession;
+
+        Entry(URLClassLoader classLoader, List<Long> fingerprint, boolean usedOutsideSession) {
+            this.classLoader = classLoader;
+            this.fingerprint = fingerprint;
+            this.usedOutsideSession = usedOutsideSession;
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package io.jshift.kit.common.util;
 
 import java.io.File;
-import java.io.FileFilter;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
@@ -14,11 +11,6 @@ import java.util.List;
 import java.util.Set;
 
 import io.jshift.kit.common.KitLogger;
-import javassist.ClassPool;
-import javassist.CtClass;
-import javassist.CtMethod;
-import javassist.Modifier;
-import javassist.NotFoundException;
 import org.apache.commons.lang3.ArrayUtils;
 
 /**
@@ -97,63 +89,33 @@ public class ClassUtil {
      * main() classes
      *
      * @param rootDir the directory to start from
-     * @return List of classes with "public void static main(String[] args)" methods. Can be empty, but not null.
+     * @return List of classes with "public void static main(String[] args)" methods, sorted by name. Can be empty, but not null.
      * @exception IOException if something goes wrong
      */
     public static List<String> findMainClasses(File rootDir) throws IOException {
-        List<String> ret = new ArrayList<>();
+        return findMainClasses(rootDir, null);
+    }
+
+    /**
+     * Find all classes below a certain directory which contain
+     * main() classes. The result for each class file is stored in the given cache
+     * file so that only changed class files need to be examined on the next call.
+     *
+     * @param rootDir the directory to start from
+     * @param cacheFile file for caching the result between calls or null for no caching
+     * @return List of classes with "public void static main(String[] args)" methods, sorted by name. Can be empty, but not null.
+     * @exception IOException if something goes wrong
+     */
+    public static List<String> findMainClasses(File rootDir, File cacheFile) throws IOException {
         if (!rootDir.exists()) {
-            return ret;
+            return new ArrayList<>();
         }
         if (!rootDir.isDirectory()) {
             throw new IllegalArgumentException(String.format("Path %s is not a directory",rootDir.getPath()));
         }
-        findClasses(ret, rootDir, rootDir.getAbsolutePath() + "/");
-        return ret;
-    }
-
-    // ========================================================================
-
-    private static final FileFilter DIR_FILTER = pathname -> pathname.isDirectory() && !pathname.getName().startsWith(".");
-
-    private static final FileFilter CLASS_FILE_FILTER = file -> (file.isFile() && file.getName().endsWith(".class"));
-
-
-    private static void findClasses(List<String> classes, File dir, String prefix) throws IOException {
-        for (File subDir : dir.listFiles(DIR_FILTER)) {
-            findClasses(classes, subDir, prefix);
-        }
-
-        for (File classFile : dir.listFiles(CLASS_FILE_FILTER)) {
-            try (InputStream is = new FileInputStream(classFile)) {
-                if (hasMainMethod(is)) {
-                    classes.add(convertToClass(classFile.getAbsolutePath(), prefix));
-                }
-            }
-        }
+        return MainClassScanner.findMainClasses(rootDir, cacheFile);
     }
 
-    private static boolean hasMainMethod(InputStream is) throws IOException {
-        try {
-            ClassPool pool = ClassPool.getDefault();
-            CtClass ctClass = pool.makeClass(is);
-            CtClass stringClass = pool.get("java.lang.String[]");
-            CtMethod mainMethod = ctClass.getDeclaredMethod("main", new CtClass[] { stringClass });
-            return mainMethod.getReturnType() == CtClass.voidType &&
-                    Modifier.isStatic(mainMethod.getModifiers()) &&
-                    Modifier.isPublic(mainMethod.getModifiers());
-        } catch (NotFoundException e) {
-            return false;
-        }
-    }
-
-    private static String convertToClass(String name, String prefix) {
-        String ret = name.replaceAll("[/\\\\]", ".");
-        ret = ret.substring(0, name.length() - ".class".length());
-        return ret.substring(prefix.length());
-    }
-
-
     public static URLClassLoader createProjectClassLoader(List<String> elements, KitLogger log) {
 
         try {
@@ -164,8 +126,8 @@ public class ClassUtil {
                 compileJars.add(new File(element).toURI().toURL());
             }
 
-            return new URLClassLoader(compileJars.toArray(new URL[compileJars.size()]),
-                    PluginServiceFactory.class.getClassLoader());
+            // Shared with other users of the same classpath, so it must not be closed
+            return ClassLoaderCache.getClassLoader(compileJars, PluginServiceFactory.class.getClassLoader());
 
         } catch (Exception e) {
             log.warn("Instructed to use project classpath, but cannot. Continuing build if we can: ", e);
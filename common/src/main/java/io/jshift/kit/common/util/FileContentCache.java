@@ -0,0 +1,91 @@
+package io.jshift.kit.common.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache for parsed configuration files. A file is only parsed again when its
+ * modification time or size has changed since it was last read.
+ *
+ * @param <T> type of the parsed file content
+ */
+public class FileContentCache<T> {
+
+    private final Charset charset;
+    private final Function<Reader, T> parser;
+    private final Map<File, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Create a cache
+     *
+     * @param parser parser used for reading the file content. The reader is closed by the cache.
+     */
+    public FileContentCache(Function<Reader, T> parser) {
+        this(Charset.defaultCharset(), parser);
+    }
+
+    /**
+     * Create a cache for files with the given encoding
+     *
+     * @param charset encoding of the files
+     * @param parser parser used for reading the file content. The reader is closed by the cache.
+     */
+    public FileContentCache(Charset charset, Function<Reader, T> parser) {
+        this.charset = charset;
+        this.parser = parser;
+    }
+
+    /**
+     * Get the parsed content of the given file, reading it only if it has changed
+     *
+     * @param file file to read
+     * @return the parsed content or an empty optional if the file doesn't exist or can't be opened
+     */
+    public Optional<T> get(File file) {
+        File key = file.getAbsoluteFile();
+        if (!key.isFile()) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        long lastModified = key.lastModified();
+        long length = key.length();
+        Entry<T> entry = entries.get(key);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return Optional.ofNullable(entry.value);
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(key), charset)) {
+            T value = parser.apply(reader);
+            entries.put(key, new Entry<>(lastModified, length, value));
+            return Optional.ofNullable(value);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Forget all cached file content
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private static class Entry<T> {
+        private final long lastModified;
+        private final long length;
+        private final T value;
+
+        Entry(long lastModified, long length, T value) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package io.jshift.kit.common.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scanner for classes with a <code>public static void main(String[])</code> method.
+ * <p>
+ * Class files are not loaded but only their constant pool and method table is parsed,
+ * which is enough to find the main method. Directories are walked in parallel.
+ * <p>
+ * The result for each class file can be remembered in a cache file, together with the
+ * size and modification time of the class file. Subsequent scans only parse class files
+ * which have changed.
+ */
+class MainClassScanner {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final byte[] MAIN_NAME = "main".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MAIN_DESCRIPTOR = "([Ljava/lang/String;)V".getBytes(StandardCharsets.UTF_8);
+
+    // Constant pool tags, see JVMS 4.4
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String CACHE_HEADER = "# main class cache v1";
+
+    private MainClassScanner() { }
+
+    /**
+     * Find all classes below the given root directory which have a main method
+     *
+     * @param rootDir directory to scan, which must exist
+     * @param cacheFile file remembering the result per class file across scans, so that only changed
+     *                  class files are parsed again. Can be null, in which case all class files are parsed.
+     * @return class names sorted alphabetically
+     * @throws IOException if a directory or class file can not be read
+     */
+    static List<String> findMainClasses(File rootDir, File cacheFile) throws IOException {
+        Map<String, ClassFileEntry> previous = readCache(cacheFile);
+        Map<String, ClassFileEntry> current = new ConcurrentHashMap<>();
+        List<String> ret;
+        try {
+            ret = ForkJoinPool.commonPool().invoke(new ScanTask(rootDir.toPath(), "", previous, current));
+        } catch (UncheckedIOException exp) {
+            throw exp.getCause();
+        }
+        if (cacheFile != null && !current.equals(previous)) {
+            writeCache(cacheFile, current);
+        }
+        ret.sort(null);
+        return ret;
+    }
+
+    /**
+     * Check whether the given class file declares a <code>public static void main(String[])</code> method
+     *
+     * @param classFile content of the class file
+     * @return true if there is a main method
+     * @throws IOException if the content is not a valid class file
+     */
+    static boolean hasMainMethod(byte[] classFile) throws IOException {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(classFile);
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a class file (invalid magic number)");
+            }
+            // minor and major version
+            skip(buf, 4);
+
+            int poolCount = buf.getShort() & 0xFFFF;
+            int mainNameIdx = -1;
+            int mainDescriptorIdx = -1;
+            for (int i = 1; i < poolCount; i++) {
+                int tag = buf.get() & 0xFF;
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        int length = buf.getShort() & 0xFFFF;
+                        if (matches(buf, MAIN_NAME, length)) {
+                            mainNameIdx = i;
+                        } else if (matches(buf, MAIN_DESCRIPTOR, length)) {
+                            mainDescriptorIdx = i;
+                        }
+                        skip(buf, length);
+                        break;
+                    case CONSTANT_CLASS:
+                    case CONSTANT_STRING:
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        skip(buf, 2);
+                        break;
+                    case CONSTANT_METHOD_HANDLE:
+                        skip(buf, 3);
+                        break;
+                    case CONSTANT_INTEGER:
+                    case CONSTANT_FLOAT:
+                    case CONSTANT_FIELDREF:
+                    case CONSTANT_METHODREF:
+                    case CONSTANT_INTERFACE_METHODREF:
+                    case CONSTANT_NAME_AND_TYPE:
+                    case CONSTANT_DYNAMIC:
+                    case CONSTANT_INVOKE_DYNAMIC:
+                        skip(buf, 4);
+                        break;
+                    case CONSTANT_LONG:
+                    case CONSTANT_DOUBLE:
+                        // 8 byte constants take up two slots in the pool
+                        skip(buf, 8);
+                        i++;
+                        break;
+                    default:
+                        throw new IOException("Invalid constant pool tag " + tag);
+                }
+            }
+            if (mainNameIdx < 0 || mainDescriptorIdx < 0) {
+                // No need to look at the methods at all
+                return false;
+            }
+
+            // access flags, this class and super class
+            skip(buf, 6);
+            int interfacesCount = buf.getShort() & 0xFFFF;
+            skip(buf, interfacesCount * 2);
+            skipMembers(buf);
+
+            int methodsCount = buf.getShort() & 0xFFFF;
+            for (int i = 0; i < methodsCount; i++) {
+                int accessFlags = buf.getShort() & 0xFFFF;
+                int nameIdx = buf.getShort() & 0xFFFF;
+                int descriptorIdx = buf.getShort() & 0xFFFF;
+                if (nameIdx == mainNameIdx && descriptorIdx == mainDescriptorIdx) {
+                    return (accessFlags & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC);
+                }
+                skipAttributes(buf);
+            }
+            return false;
+        } catch (BufferUnderflowException | IllegalArgumentException exp) {
+            throw new IOException("Truncated class file", exp);
+        }
+    }
+
+    // ========================================================================
+
+    private static void skipMembers(ByteBuffer buf) {
+        int count = buf.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            // access flags, name and descriptor index
+            skip(buf, 6);
+            skipAttributes(buf);
+        }
+    }
+
+    private static void skipAttributes(ByteBuffer buf) {
+        int count = buf.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            // name index
+            skip(buf, 2);
+            int length = buf.getInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("Invalid attribute length " + length);
+            }
+            skip(buf, length);
+        }
+    }
+
+    private static void skip(ByteBuffer buf, int count) {
+        // Cast keeps the code runnable on Java 8, where ByteBuffer doesn't override position(int)
+        ((Buffer) buf).position(buf.position() + count);
+    }
+
+    private static boolean matches(ByteBuffer buf, byte[] expected, int length) {
+        if (length != expected.length || buf.remaining() < length) {
+            return false;
+        }
+        int pos = buf.position();
+        for (int i = 0; i < length; i++) {
+            if (buf.get(pos + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, ClassFileEntry> readCache(File cacheFile) {
+        Map<String, ClassFileEntry> ret = new HashMap<>();
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return ret;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!CACHE_HEADER.equals(reader.readLine())) {
+                return ret;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Format: <size> <mtime> <has main> <class name>
+                String[] parts = line.split(" ", 4);
+                if (parts.length == 4) {
+                    ret.put(parts[3], new ClassFileEntry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                                                         "1".equals(parts[2])));
+                }
+            }
+            return ret;
+        } catch (IOException | NumberFormatException exp) {
+            // A broken cache only means that all class files are parsed again
+            return new HashMap<>();
+        }
+    }
+
+    private static void writeCache(File cacheFile, Map<String, ClassFileEntry> entries) {
+        try {
+            File dir = cacheFile.getAbsoluteFile().getParentFile();
+            Files.createDirectories(dir.toPath());
+            // Write to a temporary file first so that a concurrent build never sees a partial file
+            File tmp = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+            try {
+                try (Writer writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                    writer.write(CACHE_HEADER);
+                    writer.write('\n');
+                    for (Map.Entry<String, ClassFileEntry> entry : new TreeMap<>(entries).entrySet()) {
+                        ClassFileEntry value = entry.getValue();
+                        writer.write(value.size + " " + value.lastModified + " " + (value.hasMain ? "1" : "0") + " " +
+                                     entry.getKey() + "\n");
+                    }
+                }
+                Files.move(tmp.toPath(), cacheFile.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException exp) {
+            // Caching is only an optimization, the next scan just has to parse all files again
+        }
+    }
+
+    private static class ClassFileEntry {
+        private final long size;
+        private final long lastModified;
+        private final boolean hasMain;
+
+        ClassFileEntry(long size, long lastModified, boolean hasMain) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hasMain = hasMain;
+        }
+
+        boolean isUpToDate(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClassFileEntry that = (ClassFileEntry) o;
+            return size == that.size && lastModified == that.lastModified && hasMain == that.hasMain;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, hasMain);
+        }
+    }
+
+    private static class ScanTask extends RecursiveTask<List<String>> {
+
+        private final Path dir;
+        private final String packagePrefix;
+        private final Map<String, ClassFileEntry> previous;
+        private final Map<String, ClassFileEntry> current;
+
+        ScanTask(Path dir, String packagePrefix, Map<String, ClassFileEntry> previous, Map<String, ClassFileEntry> current) {
+            this.dir = dir;
+            this.packagePrefix = packagePrefix;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        @Override
+        protected List<String> compute() {
+            List<ScanTask> subTasks = new ArrayList<>();
+            List<String> ret = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (attributes.isDirectory()) {
+                        if (!name.startsWith(".")) {
+                            ScanTask task = new ScanTask(entry, packagePrefix + name + ".", previous, current);
+                            task.fork();
+                            subTasks.add(task);
+                        }
+                    } else if (attributes.isRegularFile() && name.endsWith(".class")) {
+                        String className = packagePrefix + name.substring(0, name.length() - ".class".length());
+                        if (isMainClass(entry, className, attributes)) {
+                            ret.add(className);
+                        }
+                    }
+                }
+            } catch (IOException exp) {
+                throw new UncheckedIOException(exp);
+            }
+            for (ScanTask task : subTasks) {
+                ret.addAll(task.join());
+            }
+            return ret;
+        }
+
+        private boolean isMainClass(Path classFile, String className, BasicFileAttributes attributes) throws IOException {
+            ClassFileEntry entry = previous.get(className);
+            if (entry == null || !entry.isUpToDate(attributes)) {
+                try {
+                    entry = new ClassFileEntry(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                                               hasMainMethod(Files.readAllBytes(classFile)));
+                } catch (IOException exp) {
+                    throw new IOException("Cannot examine " + classFile + ": " + exp.getMessage(), exp);
+                }
+            }
+            current.put(className, entry);
+            return entry.hasMain;
+        }
+    }
+}
@@ -8,7 +8,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -53,6 +52,10 @@ public class MavenUtil {
         return false;
     }
 
+    /**
+     * Get a class loader for the project's compile classpath. The class loader is shared
+     * and must not be closed by the caller, see {@link ClassLoaderCache}.
+     */
     public static URLClassLoader getCompileClassLoader(MavenProject project) {
         try {
             List<String> classpathElements = project.getCompileClasspathElements();
@@ -62,6 +65,10 @@ public class MavenUtil {
         }
     }
 
+    /**
+     * Get a class loader for the project's test classpath. The class loader is shared
+     * and must not be closed by the caller, see {@link ClassLoaderCache}.
+     */
     public static URLClassLoader getTestClassLoader(MavenProject project) {
         try {
             List<String> classpathElements = project.getTestClasspathElements();
@@ -98,8 +105,8 @@ public class MavenUtil {
         return createURLClassLoader(urls);
     }
 
-    private static URLClassLoader createURLClassLoader(Collection<URL> jars) {
-        return new URLClassLoader(jars.toArray(new URL[jars.size()]));
+    private static URLClassLoader createURLClassLoader(List<URL> jars) {
+        return ClassLoaderCache.getClassLoader(jars, ClassLoader.getSystemClassLoader());
     }
 
     private static URL pathToUrl(String path) {
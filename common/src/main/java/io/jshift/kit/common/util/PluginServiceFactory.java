@@ -3,14 +3,20 @@ package io.jshift.kit.common.util;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -32,6 +38,22 @@ import java.util.regex.Pattern;
  */
 public final class PluginServiceFactory<C> {
 
+    // Resolved service entries per classloader set and descriptor paths, so that the descriptors are
+    // read and parsed only once, even when a new factory is created for every module of a build.
+    // The classloaders are only weakly referenced and the entries hold class names only, so that
+    // plugin and project realms can still be collected.
+    private static final IndexNode SERVICE_INDEX_CACHE = new IndexNode();
+
+    // Service constructors per context type, attached to the service class itself so that
+    // they go away together with the class and its classloader
+    private static final ClassValue<Map<Class<?>, Constructor<?>>> SERVICE_CONSTRUCTORS =
+        new ClassValue<Map<Class<?>, Constructor<?>>>() {
+            @Override
+            protected Map<Class<?>, Constructor<?>> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+
     private List<ClassLoader> additionalClassLoaders = new ArrayList<>();
 
     // Parameters for service constructors
@@ -58,38 +80,108 @@ public final class PluginServiceFactory<C> {
      * @return a ordered list of created services or an empty list.
      */
     public <T> List<T> createServiceObjects(String... descriptorPaths) {
+        List<T> ret = new ArrayList<>();
+        IndexNode node = getIndexNode();
+        for (ServiceEntry entry : getServiceIndex(node, descriptorPaths)) {
+            ret.add(createInstance(entry, getServiceClass(node, entry)));
+        }
+        return ret;
+    }
+
+    private Class<?> getServiceClass(IndexNode node, ServiceEntry entry) {
+        synchronized (SERVICE_INDEX_CACHE) {
+            WeakReference<Class<?>> ref = node.classes.get(entry.getClassName());
+            Class<?> clazz = ref != null ? ref.get() : null;
+            if (clazz == null) {
+                clazz = ClassUtil.classForName(entry.getClassName(), additionalClassLoaders);
+                if (clazz == null) {
+                    throw new IllegalStateException("Cannot load service " + entry.getClassName() + " defined in " +
+                                                    entry.url + ". Aborting");
+                }
+                node.classes.put(entry.getClassName(), new WeakReference<>(clazz));
+            }
+            return clazz;
+        }
+    }
+
+    private <T> T createInstance(ServiceEntry entry, Class<?> serviceClass) {
+        try {
+            Map<Class<?>, Constructor<?>> constructors = SERVICE_CONSTRUCTORS.get(serviceClass);
+            Class<?> contextClass = context.getClass();
+            Constructor<?> constructor = constructors.get(contextClass);
+            if (constructor == null) {
+                constructor = serviceClass.getConstructor(contextClass);
+                constructors.put(contextClass, constructor);
+            }
+            return (T) constructor.newInstance(context);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load service " + entry.getClassName() + " defined in " +
+                                            entry.url + " : " + e + ". Aborting", e);
+        }
+    }
+
+    /**
+     * Forget all cached service indexes, so that the descriptors are read again on the next lookup
+     */
+    public static void clearServiceIndexCache() {
+        synchronized (SERVICE_INDEX_CACHE) {
+            SERVICE_INDEX_CACHE.children.clear();
+            SERVICE_INDEX_CACHE.indexes.clear();
+            SERVICE_INDEX_CACHE.classes.clear();
+        }
+    }
+
+    private IndexNode getIndexNode() {
+        synchronized (SERVICE_INDEX_CACHE) {
+            IndexNode node = SERVICE_INDEX_CACHE.getChild(Thread.currentThread().getContextClassLoader());
+            for (ClassLoader loader : additionalClassLoaders) {
+                node = node.getChild(loader);
+            }
+            return node;
+        }
+    }
+
+    private List<ServiceEntry> getServiceIndex(IndexNode node, String[] descriptorPaths) {
+        synchronized (SERVICE_INDEX_CACHE) {
+            List<String> key = Arrays.asList(descriptorPaths);
+            List<ServiceEntry> index = node.indexes.get(key);
+            if (index == null) {
+                index = createServiceIndex(descriptorPaths);
+                node.indexes.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    private List<ServiceEntry> createServiceIndex(String[] descriptorPaths) {
         try {
             ServiceEntry.initDefaultOrder();
-            TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
+            TreeSet<ServiceEntry> entries = new TreeSet<>();
             for (String descriptor : descriptorPaths) {
-                readServiceDefinitions(serviceMap, descriptor);
-            }
-            ArrayList<T> ret = new ArrayList<T>();
-            for (T service : serviceMap.values()) {
-                ret.add(service);
+                readServiceDefinitions(entries, descriptor);
             }
-            return ret;
+            return Collections.unmodifiableList(new ArrayList<>(entries));
         } finally {
             ServiceEntry.removeDefaultOrder();
         }
     }
 
-    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath) {
+    private void readServiceDefinitions(Set<ServiceEntry> entries, String defPath) {
         try {
             for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
-                readServiceDefinitionFromUrl(extractorMap, url);
+                readServiceDefinitionFromUrl(entries, url);
             }
         } catch (IOException e) {
             throw new IllegalStateException("Cannot load service from " + defPath + ": " + e, e);
         }
     }
 
-    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, T> extractorMap, String url) {
+    private void readServiceDefinitionFromUrl(Set<ServiceEntry> entries, String url) {
         String line = null;
         try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
             line = reader.readLine();
             while (line != null) {
-                createOrRemoveService(extractorMap, line);
+                addOrRemoveEntry(entries, line, url);
                 line = reader.readLine();
             }
         } catch (ReflectiveOperationException|IOException e) {
@@ -101,7 +193,7 @@ public final class PluginServiceFactory<C> {
     // Matches comment lines and empty lines. these are skipped
     private static Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
 
-    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line)
+    private void addOrRemoveEntry(Set<ServiceEntry> entries, String line, String url)
             throws ReflectiveOperationException {
         if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
             ServiceEntry entry = new ServiceEntry(line);
@@ -109,27 +201,14 @@ public final class PluginServiceFactory<C> {
                 // Removing is a bit complex since we need to find out
                 // the proper key since the order is part of equals/hash
                 // so we cant fetch/remove it directly
-                Set<ServiceEntry> toRemove = new HashSet<ServiceEntry>();
-                for (ServiceEntry key : serviceMap.keySet()) {
-                    if (key.getClassName().equals(entry.getClassName())) {
-                        toRemove.add(key);
-                    }
-                }
-                for (ServiceEntry key : toRemove) {
-                    serviceMap.remove(key);
-                }
+                entries.removeIf(key -> key.getClassName().equals(entry.getClassName()));
             } else {
-                Class<T> clazz = ClassUtil.classForName(entry.getClassName(), additionalClassLoaders);
+                Class<?> clazz = ClassUtil.classForName(entry.getClassName(), additionalClassLoaders);
                 if (clazz == null) {
                     throw new ClassNotFoundException("Class " + entry.getClassName() + " could not be found");
                 }
-                Constructor<T> constructor = clazz.getConstructor(context.getClass());
-                if (constructor == null) {
-                    throw new IllegalArgumentException(
-                            "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
-                }
-                T service = constructor.newInstance(context);
-                serviceMap.put(entry, service);
+                entry.url = url;
+                entries.add(entry);
             }
         }
     }
@@ -141,11 +220,26 @@ public final class PluginServiceFactory<C> {
 
     // =============================================================================
 
+    // Cached service indexes and resolved service classes for a classloader, with the nodes for the
+    // classloaders following it. Classes are held weakly, since they would otherwise keep their loader alive.
+    private static class IndexNode {
+        private final Map<ClassLoader, IndexNode> children = new WeakHashMap<>();
+        private final Map<List<String>, List<ServiceEntry>> indexes = new HashMap<>();
+        private final Map<String, WeakReference<Class<?>>> classes = new HashMap<>();
+
+        private IndexNode getChild(ClassLoader loader) {
+            return children.computeIfAbsent(loader, k -> new IndexNode());
+        }
+    }
+
     static class ServiceEntry implements Comparable<ServiceEntry> {
         private String className;
         private boolean remove;
         private Integer order;
 
+        // Descriptor the service is defined in
+        private String url;
+
         private static ThreadLocal<Integer> defaultOrderHolder = new ThreadLocal<Integer>() {
 
             /**
@@ -0,0 +1,108 @@
+package io.jshift.kit.common.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Index of a project's build plugins and dependencies for fast lookups. It answers the
+ * same questions as the corresponding methods of {@link MavenUtil}, but the plugins and
+ * artifacts are scanned only once, when first asked for.
+ * <p>
+ * The index reflects the project at the time of the first lookup, so it should only be
+ * used when the plugins and dependencies don't change anymore.
+ */
+public class ProjectFacts {
+
+    private final MavenProject project;
+
+    // Keyed by "groupId:artifactId" and by artifactId alone, the first plugin wins
+    private Map<String, Plugin> pluginsByKey;
+    private Map<String, Plugin> pluginsByArtifactId;
+
+    // Versions of non-test dependencies, keyed by "groupId:artifactId" and by groupId alone
+    private Map<String, String> versionsByKey;
+    private Map<String, String> versionsByGroupId;
+
+    public ProjectFacts(MavenProject project) {
+        this.project = project;
+    }
+
+    /**
+     * Returns true if the project has a build plugin with the given groupId and artifactId
+     */
+    public boolean hasPlugin(String groupId, String artifactId) {
+        return getPlugin(groupId, artifactId) != null;
+    }
+
+    public boolean hasPluginOfAnyGroupId(String pluginArtifact) {
+        return getPluginOfAnyGroupId(pluginArtifact) != null;
+    }
+
+    public Plugin getPluginOfAnyGroupId(String pluginArtifact) {
+        return getPlugin(null, pluginArtifact);
+    }
+
+    /**
+     * Returns the plugin with the given groupId (if not null) and artifactId.
+     */
+    public synchronized Plugin getPlugin(String groupId, String artifactId) {
+        if (artifactId == null) {
+            throw new IllegalArgumentException("artifactId cannot be null");
+        }
+        if (pluginsByKey == null) {
+            indexPlugins();
+        }
+        return groupId != null ? pluginsByKey.get(groupId + ":" + artifactId) : pluginsByArtifactId.get(artifactId);
+    }
+
+    /**
+     * Returns true if the project has a dependency with the given groupId and artifactId (if not null)
+     */
+    public boolean hasDependency(String groupId, String artifactId) {
+        return getDependencyVersion(groupId, artifactId) != null;
+    }
+
+    /**
+     * Returns the version of the dependency with the given groupId and artifactId (if not null).
+     * Test dependencies are not considered.
+     */
+    public synchronized String getDependencyVersion(String groupId, String artifactId) {
+        if (versionsByKey == null) {
+            indexDependencies();
+        }
+        return artifactId != null ? versionsByKey.get(groupId + ":" + artifactId) : versionsByGroupId.get(groupId);
+    }
+
+    private void indexPlugins() {
+        pluginsByKey = new HashMap<>();
+        pluginsByArtifactId = new HashMap<>();
+        List<Plugin> plugins = project.getBuildPlugins();
+        if (plugins != null) {
+            for (Plugin plugin : plugins) {
+                pluginsByKey.putIfAbsent(plugin.getKey(), plugin);
+                pluginsByArtifactId.putIfAbsent(plugin.getArtifactId(), plugin);
+            }
+        }
+    }
+
+    private void indexDependencies() {
+        versionsByKey = new HashMap<>();
+        versionsByGroupId = new HashMap<>();
+        Collection<Artifact> artifacts = project.getArtifacts();
+        if (artifacts != null) {
+            for (Artifact artifact : artifacts) {
+                if ("test".equals(artifact.getScope())) {
+                    continue;
+                }
+                versionsByKey.putIfAbsent(artifact.getGroupId() + ":" + artifact.getArtifactId(), artifact.getVersion());
+                versionsByGroupId.putIfAbsent(artifact.getGroupId(), artifact.getVersion());
+            }
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package io.jshift.kit.common.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.SortedMap;
 
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.yaml.snakeyaml.Yaml;
 
 /**
  * Utility methods to access spring-boot resources.
@@ -24,16 +24,39 @@ public class SpringBootUtil {
 
     private static final transient Logger LOG = LoggerFactory.getLogger(SpringBootUtil.class);
 
+    // Parsed configuration files, only read again when they have changed on disk
+    private static final FileContentCache<List<Map<String, Object>>> YAML_CACHE =
+        new FileContentCache<>(StandardCharsets.UTF_8, YamlUtil::getFlattenedDocuments);
+    private static final FileContentCache<Properties> PROPERTIES_CACHE =
+        new FileContentCache<>(StandardCharsets.ISO_8859_1, SpringBootUtil::loadProperties);
+
     /**
      * Returns the spring boot configuration (supports `application.properties` and `application.yml`)
      * or an empty properties object if not found
      */
     public static Properties getSpringBootApplicationProperties(URLClassLoader compileClassLoader) {
+        return getSpringBootApplicationProperties(null, compileClassLoader);
+    }
+
+    /**
+     * Returns the spring boot configuration for the given profile or an empty properties object if not found.
+     * Profile specific documents within `application.yml` as well as `application-{profile}.yml` and
+     * `application-{profile}.properties` override the default configuration.
+     *
+     * @param springActiveProfile the active profile or null if only the default configuration should be used
+     * @param compileClassLoader class loader of the project
+     * @return the configuration, which can be changed by the caller
+     */
+    public static Properties getSpringBootApplicationProperties(String springActiveProfile, URLClassLoader compileClassLoader) {
         URL ymlResource = compileClassLoader.findResource("application.yml");
         URL propertiesResource = compileClassLoader.findResource("application.properties");
 
-        Properties props = YamlUtil.getPropertiesFromYamlResource(ymlResource);
+        Properties props = getYamlResource(springActiveProfile, ymlResource);
         props.putAll(getPropertiesResource(propertiesResource));
+        if (springActiveProfile != null) {
+            props.putAll(getYamlResource(springActiveProfile, compileClassLoader.findResource("application-" + springActiveProfile + ".yml")));
+            props.putAll(getPropertiesResource(compileClassLoader.findResource("application-" + springActiveProfile + ".properties")));
+        }
         return props;
     }
 
@@ -42,7 +65,10 @@ public class SpringBootUtil {
      */
     protected static Properties getPropertiesResource(URL resource) {
         Properties answer = new Properties();
-        if (resource != null) {
+        File file = toFile(resource);
+        if (file != null) {
+            PROPERTIES_CACHE.get(file).ifPresent(answer::putAll);
+        } else if (resource != null) {
             try(InputStream stream = resource.openStream()) {
                 answer.load(stream);
             } catch (IOException e) {
@@ -52,6 +78,43 @@ public class SpringBootUtil {
         return answer;
     }
 
+    private static Properties getYamlResource(String springActiveProfile, URL resource) {
+        File file = toFile(resource);
+        if (file == null) {
+            return YamlUtil.getPropertiesFromYamlResource(springActiveProfile, resource);
+        }
+        try {
+            return YAML_CACHE.get(file)
+                             .map(documents -> YamlUtil.getPropertiesFromYamlDocuments(springActiveProfile, documents))
+                             .orElseGet(Properties::new);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Spring Boot configuration file %s is not formatted correctly. %s",
+                    resource.toString(), e.getMessage()));
+        }
+    }
+
+    private static Properties loadProperties(Reader reader) {
+        Properties ret = new Properties();
+        try {
+            ret.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error while reading properties: " + e, e);
+        }
+        return ret;
+    }
+
+    // Only resources in a directory can be checked for changes cheaply
+    private static File toFile(URL resource) {
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(resource.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Determine the spring-boot devtools version for the current project
      */
@@ -66,6 +129,13 @@ public class SpringBootUtil {
         return Optional.ofNullable(MavenUtil.getDependencyVersion(mavenProject, SpringBootConfigurationHelper.SPRING_BOOT_GROUP_ID, SpringBootConfigurationHelper.SPRING_BOOT_ARTIFACT_ID));
     }
 
+    /**
+     * Determine the spring-boot major version from the given project facts
+     */
+    public static Optional<String> getSpringBootVersion(ProjectFacts projectFacts) {
+        return Optional.ofNullable(projectFacts.getDependencyVersion(SpringBootConfigurationHelper.SPRING_BOOT_GROUP_ID, SpringBootConfigurationHelper.SPRING_BOOT_ARTIFACT_ID));
+    }
+
 
 
 }
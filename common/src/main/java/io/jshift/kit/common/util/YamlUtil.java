@@ -1,33 +1,37 @@
 package io.jshift.kit.common.util;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.SortedMap;
+
 import org.yaml.snakeyaml.Yaml;
 
 public class YamlUtil {
+
+    // Keys restricting a document of a multi document Yaml file to certain Spring profiles
+    private static final String[] PROFILE_KEYS = { "spring.profiles", "spring.config.activate.on-profile" };
+
     protected static Properties getPropertiesFromYamlResource(URL resource) {
+        return getPropertiesFromYamlResource(null, resource);
+    }
+
+    protected static Properties getPropertiesFromYamlResource(String activeProfile, URL resource) {
         if (resource != null) {
-            try (InputStream yamlStream = resource.openStream()) {
-                Yaml yaml = new Yaml();
-                @SuppressWarnings("unchecked")
-                SortedMap<String, Object> source = yaml.loadAs(yamlStream, SortedMap.class);
-                Properties properties = new Properties();
-                if (source != null) {
-                    try {
-                        properties.putAll(getFlattenedMap(source));
-                    } catch (IllegalArgumentException e) {
-                        throw new IllegalArgumentException(String.format("Spring Boot configuration file %s is not formatted correctly. %s",
-                                resource.toString(), e.getMessage()));
-                    }
-                }
-                return properties;
+            try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+                return getPropertiesFromYamlDocuments(activeProfile, getFlattenedDocuments(reader));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Spring Boot configuration file %s is not formatted correctly. %s",
+                        resource.toString(), e.getMessage()));
             } catch (IOException e) {
                 throw new IllegalStateException("Error while reading Yaml resource from URL " + resource, e);
             }
@@ -35,6 +39,60 @@ public class YamlUtil {
         return new Properties();
     }
 
+    /**
+     * Parse all documents of a Yaml stream into flattened maps, so that the documents
+     * applying to a profile can be picked without parsing the stream again.
+     *
+     * @param reader reader for the Yaml content
+     * @return one flattened map per document
+     * @throws IllegalArgumentException if the content is not a valid configuration file
+     */
+    static List<Map<String, Object>> getFlattenedDocuments(Reader reader) {
+        List<Map<String, Object>> ret = new ArrayList<>();
+        for (Object document : new Yaml().loadAll(reader)) {
+            if (document == null) {
+                continue;
+            }
+            if (!(document instanceof Map)) {
+                throw new IllegalArgumentException(String.format("Expected to find a map but %s with content %s found.",
+                        document.getClass(), document.toString()));
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> source = (Map<String, Object>) document;
+            ret.add(Collections.unmodifiableMap(getFlattenedMap(source)));
+        }
+        return Collections.unmodifiableList(ret);
+    }
+
+    /**
+     * Merge the documents applying to the given profile. Documents without a profile always apply,
+     * and later documents override earlier ones.
+     *
+     * @param activeProfile the active profile or null if only the default documents should be used
+     * @param documents flattened documents as returned by {@link #getFlattenedDocuments(Reader)}
+     * @return the merged properties
+     */
+    static Properties getPropertiesFromYamlDocuments(String activeProfile, List<Map<String, Object>> documents) {
+        Properties properties = new Properties();
+        for (Map<String, Object> document : documents) {
+            if (isActive(document, activeProfile)) {
+                properties.putAll(document);
+            }
+        }
+        return properties;
+    }
+
+    private static boolean isActive(Map<String, Object> document, String activeProfile) {
+        for (String key : PROFILE_KEYS) {
+            Object profiles = document.get(key);
+            if (profiles != null) {
+                return activeProfile != null &&
+                       Arrays.asList(profiles.toString().split("\\s*,\\s*")).contains(activeProfile);
+            }
+        }
+        return true;
+    }
+
     /**
      * Build a flattened representation of the Yaml tree. The conversion is compliant with the thorntail spring-boot rules.
      */
@@ -20,6 +20,7 @@ import org.fusesource.jansi.Ansi;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author roland
@@ -44,6 +45,32 @@ public class AnsiLoggerFacadeTest {
                 testLog.getMessage());
     }
 
+    @Test
+    public void lazyMessagesNotEvaluatedWhenDisabled() {
+        TestLog testLog = new TestLog() {
+            @Override
+            public boolean isDebugEnabled() {
+                return false;
+            }
+        };
+        AnsiLoggerFacade logger = new AnsiLoggerFacade(testLog, false, false, false, "T>");
+        logger.debug(() -> {
+            throw new AssertionError("Debug message should not be computed");
+        });
+        logger.verbose(() -> {
+            throw new AssertionError("Verbose message should not be computed");
+        });
+        assertNull(testLog.getMessage());
+    }
+
+    @Test
+    public void lazyVerboseMessage() {
+        TestLog testLog = new TestLog();
+        AnsiLoggerFacade logger = new AnsiLoggerFacade(testLog, false, true, false, "T>");
+        logger.verbose(() -> "Lazy message");
+        assertEquals(Ansi.ansi().fgBright(Ansi.Color.BLACK).a("T>").a("Lazy message").reset().toString(),
+                     testLog.getMessage());
+    }
 
     private class TestLog extends KitLogger.StdoutLogger {
         private String message;
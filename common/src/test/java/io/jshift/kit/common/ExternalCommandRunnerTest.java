@@ -0,0 +1,96 @@
+package io.jshift.kit.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Mocked;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ExternalCommandRunnerTest {
+
+    @Mocked
+    private KitLogger log;
+
+    @Before
+    public void setup() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+    }
+
+    @Test
+    public void runsCommandsConcurrently() {
+        List<EchoCommand> commands = Arrays.asList(new EchoCommand("sleep 1; echo one"),
+                                                   new EchoCommand("sleep 1; echo two"),
+                                                   new EchoCommand("sleep 1; exit 2"));
+        long start = System.currentTimeMillis();
+        List<ExternalCommandRunner.Result<EchoCommand>> results = new ExternalCommandRunner(3).runAll(commands, 10, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - start < 2500);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(Arrays.asList("one"), results.get(0).getCommand().lines);
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(Arrays.asList("two"), commands.get(1).lines);
+        assertFalse(results.get(2).isSuccess());
+        assertFalse(results.get(2).isTimedOut());
+        assertEquals(2, results.get(2).getStatusCode());
+
+        // Every command has run in its own, numbered worker thread
+        assertTrue(commands.get(0).thread.matches("external-command-runner-\\d"));
+        assertTrue(commands.get(1).thread.matches("external-command-runner-\\d"));
+        assertNotEquals(commands.get(0).thread, commands.get(1).thread);
+    }
+
+    @Test
+    public void cancelsCommandsAfterDeadline() {
+        List<ExternalCommand> commands = Arrays.asList(new SleepCommand(), new EchoCommand("echo fast"));
+        long start = System.currentTimeMillis();
+        List<ExternalCommandRunner.Result<ExternalCommand>> results = new ExternalCommandRunner(2).runAll(commands, 500, TimeUnit.MILLISECONDS);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        assertTrue(results.get(0).isTimedOut());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+    }
+
+    private class EchoCommand extends ExternalCommand {
+        private final String script;
+        private final List<String> lines = new ArrayList<>();
+        private volatile String thread;
+
+        EchoCommand(String script) {
+            super(ExternalCommandRunnerTest.this.log);
+            this.script = script;
+        }
+
+        @Override
+        protected String[] getArgs() {
+            return new String[] { "sh", "-c", script };
+        }
+
+        @Override
+        protected void processLine(String line) {
+            thread = Thread.currentThread().getName();
+            lines.add(line);
+        }
+    }
+
+    private class SleepCommand extends ExternalCommand {
+        SleepCommand() {
+            super(ExternalCommandRunnerTest.this.log);
+        }
+
+        @Override
+        protected String[] getArgs() {
+            return new String[] { "sleep", "30" };
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.jshift.kit.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mockit.Mocked;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+
+public class ExternalCommandTest {
+
+    @Mocked
+    private KitLogger log;
+
+    @Before
+    public void setup() {
+        assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+    }
+
+    @Test
+    public void outputSplitIntoLines() throws IOException {
+        ShellCommand command = new ShellCommand("printf 'first\\r\\nsecond\\n\\nthird'", false);
+        command.execute();
+        assertEquals(Arrays.asList("first", "second", "", "third"), command.lines);
+    }
+
+    @Test
+    public void processInput() throws IOException {
+        ShellCommand command = new ShellCommand("cat", false);
+        command.execute("hello\nworld\n");
+        assertEquals(Arrays.asList("hello", "world"), command.lines);
+    }
+
+    @Test
+    public void redirectedErrorStream() throws IOException {
+        ShellCommand command = new ShellCommand("echo out; echo err >&2", true);
+        command.execute();
+        assertTrue(command.lines.contains("out"));
+        assertTrue(command.lines.contains("err"));
+    }
+
+    @Test(expected = IOException.class)
+    public void failingCommand() throws IOException {
+        new ShellCommand("exit 3", false).execute();
+    }
+
+    private class ShellCommand extends ExternalCommand {
+        private final String script;
+        private final boolean redirect;
+        private final List<String> lines = new ArrayList<>();
+
+        ShellCommand(String script, boolean redirect) {
+            super(ExternalCommandTest.this.log);
+            this.script = script;
+            this.redirect = redirect;
+        }
+
+        @Override
+        protected String[] getArgs() {
+            return new String[] { "sh", "-c", script };
+        }
+
+        @Override
+        protected boolean redirectErrorStream() {
+            return redirect;
+        }
+
+        @Override
+        protected void processLine(String line) {
+            lines.add(line);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.jshift.kit.common.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ClassLoaderCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void closeClassLoaders() throws IOException {
+        ClassLoaderCache.closeAll();
+    }
+
+    @Test
+    public void classLoadersAreShared() throws IOException {
+        File jar = createJar("one.jar", "a.txt");
+        List<URL> urls = Arrays.asList(folder.newFolder("classes").toURI().toURL(), jar.toURI().toURL());
+        ClassLoader parent = getClass().getClassLoader();
+
+        URLClassLoader classLoader = ClassLoaderCache.getClassLoader(urls, parent);
+        assertSame(classLoader, ClassLoaderCache.getClassLoader(Arrays.asList(urls.get(0), urls.get(1)), parent));
+        assertNotSame(classLoader, ClassLoaderCache.getClassLoader(urls, null));
+        assertNotSame(classLoader, ClassLoaderCache.getClassLoader(urls.subList(0, 1), parent));
+        assertNotNull(classLoader.findResource("a.txt"));
+    }
+
+    @Test
+    public void changedJarsGetNewClassLoader() throws IOException {
+        File jar = createJar("one.jar", "a.txt");
+        List<URL> urls = Arrays.asList(jar.toURI().toURL());
+        ClassLoaderCache.beginSession();
+        URLClassLoader classLoader = ClassLoaderCache.getClassLoader(urls, null);
+        assertNotNull(classLoader.findResource("a.txt"));
+
+        createJar("one.jar", "b.txt");
+        jar.setLastModified(jar.lastModified() + 10000);
+        URLClassLoader changed = ClassLoaderCache.getClassLoader(urls, null);
+        assertNotSame(classLoader, changed);
+        assertNotNull(changed.findResource("b.txt"));
+        // The replaced class loader might still be in use, so it is closed when the session ends
+        assertNotNull(classLoader.findResource("a.txt"));
+
+        ClassLoaderCache.endSession();
+        assertNull(classLoader.findResource("a.txt"));
+        assertNull(changed.findResource("b.txt"));
+    }
+
+    @Test
+    public void lastSessionClosesClassLoaders() throws IOException {
+        List<URL> urls = Arrays.asList(createJar("one.jar", "a.txt").toURI().toURL());
+        ClassLoaderCache.beginSession();
+        ClassLoaderCache.beginSession();
+        URLClassLoader classLoader = ClassLoaderCache.getClassLoader(urls, null);
+
+        ClassLoaderCache.endSession();
+        assertSame(classLoader, ClassLoaderCache.getClassLoader(urls, null));
+        assertNotNull(classLoader.findResource("a.txt"));
+
+        ClassLoaderCache.endSession();
+        assertNull(classLoader.findResource("a.txt"));
+        assertNotSame(classLoader, ClassLoaderCache.getClassLoader(urls, null));
+    }
+
+    @Test
+    public void sessionsDoNotCloseClassLoadersUsedOutsideSession() throws Exception {
+        List<URL> outsideUrls = Arrays.asList(createJar("one.jar", "a.txt").toURI().toURL());
+        List<URL> otherThreadUrls = Arrays.asList(createJar("two.jar", "b.txt").toURI().toURL());
+        List<URL> sessionUrls = Arrays.asList(createJar("three.jar", "c.txt").toURI().toURL());
+        URLClassLoader outside = ClassLoaderCache.getClassLoader(outsideUrls, null);
+
+        // A thread not running in the session, e.g. one building another module
+        AtomicReference<URLClassLoader> otherThread = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThread.set(ClassLoaderCache.getClassLoader(otherThreadUrls, null)));
+
+        ClassLoaderCache.beginSession();
+        assertSame(outside, ClassLoaderCache.getClassLoader(outsideUrls, null));
+        URLClassLoader inSession = ClassLoaderCache.getClassLoader(sessionUrls, null);
+        thread.start();
+        thread.join();
+        ClassLoaderCache.endSession();
+
+        assertNull(inSession.findResource("c.txt"));
+        assertNotNull(outside.findResource("a.txt"));
+        assertNotNull(otherThread.get().findResource("b.txt"));
+        assertSame(outside, ClassLoaderCache.getClassLoader(outsideUrls, null));
+    }
+
+    @Test
+    public void closeAllForgetsClassLoaders() throws IOException {
+        List<URL> urls = Arrays.asList(createJar("one.jar", "a.txt").toURI().toURL());
+        URLClassLoader classLoader = ClassLoaderCache.getClassLoader(urls, null);
+        ClassLoaderCache.closeAll();
+        assertNotSame(classLoader, ClassLoaderCache.getClassLoader(urls, null));
+    }
+
+    private File createJar(String name, String entry) throws IOException {
+        File jar = new File(folder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry(entry));
+            out.write(entry.getBytes("UTF-8"));
+            out.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,126 @@
+package io.jshift.kit.common.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClassUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void findMainClasses() throws IOException {
+        File root = folder.newFolder("classes");
+        copyClass(root, WithMain.class);
+        copyClass(root, WithInstanceMain.class);
+        copyClass(root, WithOtherMain.class);
+        copyClass(root, ClassUtilTest.class);
+        new File(root, ".hidden").mkdirs();
+        Files.write(new File(root, "README.txt").toPath(), "no class".getBytes());
+
+        assertEquals(Collections.singletonList(WithMain.class.getName()), ClassUtil.findMainClasses(root));
+    }
+
+    @Test
+    public void findMainClassesInMissingDirectory() throws IOException {
+        assertTrue(ClassUtil.findMainClasses(new File(folder.getRoot(), "missing")).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidClassFile() throws IOException {
+        File root = folder.newFolder("classes");
+        byte[] content = readClass(WithMain.class);
+        Files.write(new File(root, "Broken.class").toPath(), Arrays.copyOf(content, content.length / 2));
+        ClassUtil.findMainClasses(root);
+    }
+
+    @Test
+    public void findMainClassesWithCache() throws IOException {
+        File root = folder.newFolder("classes");
+        File cacheFile = new File(folder.getRoot(), "cache/main-classes.cache");
+        File classFile = copyClass(root, WithMain.class);
+        copyClass(root, WithInstanceMain.class);
+
+        List<String> expected = Collections.singletonList(WithMain.class.getName());
+        assertEquals(expected, ClassUtil.findMainClasses(root, cacheFile));
+        assertTrue(cacheFile.isFile());
+        // No temporary files are left behind
+        assertEquals(1, cacheFile.getParentFile().list().length);
+
+        // Unchanged size and modification time, so the (now broken) class file is not parsed again
+        long lastModified = classFile.lastModified();
+        Files.write(classFile.toPath(), new byte[(int) classFile.length()]);
+        classFile.setLastModified(lastModified);
+        assertEquals(expected, ClassUtil.findMainClasses(root, cacheFile));
+
+        classFile.setLastModified(lastModified - 10000);
+        try {
+            ClassUtil.findMainClasses(root, cacheFile);
+            fail("Changed class file should have been parsed again");
+        } catch (IOException exp) {
+            assertTrue(exp.getMessage().contains("Cannot examine"));
+        }
+    }
+
+    @Test
+    public void hasMainMethod() throws IOException {
+        assertTrue(MainClassScanner.hasMainMethod(readClass(WithMain.class)));
+        assertFalse(MainClassScanner.hasMainMethod(readClass(WithInstanceMain.class)));
+        assertFalse(MainClassScanner.hasMainMethod(readClass(WithOtherMain.class)));
+    }
+
+    private File copyClass(File root, Class<?> clazz) throws IOException {
+        File target = new File(root, clazz.getName().replace('.', '/') + ".class");
+        target.getParentFile().mkdirs();
+        Files.write(target.toPath(), readClass(clazz));
+        return target;
+    }
+
+    private byte[] readClass(Class<?> clazz) throws IOException {
+        String name = clazz.getName();
+        try (InputStream is = clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    public static class WithMain {
+        private static final long SOME_LONG = System.nanoTime();
+        private static final double SOME_DOUBLE = Math.random();
+
+        public static void main(String[] args) {
+            System.out.println(SOME_LONG + SOME_DOUBLE);
+        }
+    }
+
+    public static class WithInstanceMain {
+        public void main(String[] args) {
+        }
+    }
+
+    public static class WithOtherMain {
+        public static int main(String args) {
+            return 0;
+        }
+    }
+}
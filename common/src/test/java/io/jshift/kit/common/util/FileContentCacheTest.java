@@ -0,0 +1,53 @@
+package io.jshift.kit.common.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FileContentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parsesOnlyWhenChanged() throws IOException {
+        AtomicInteger parseCount = new AtomicInteger();
+        FileContentCache<String> cache = new FileContentCache<>(r -> {
+            parseCount.incrementAndGet();
+            try {
+                return new BufferedReader(r).readLine();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        File file = folder.newFile("config.json");
+        Files.write(file.toPath(), "first".getBytes());
+        assertEquals("first", cache.get(file).get());
+        assertEquals("first", cache.get(file).get());
+        assertEquals(1, parseCount.get());
+
+        Files.write(file.toPath(), "second".getBytes());
+        assertEquals("second", cache.get(file).get());
+        assertEquals(2, parseCount.get());
+
+        cache.clear();
+        assertEquals("second", cache.get(file).get());
+        assertEquals(3, parseCount.get());
+    }
+
+    @Test
+    public void missingFile() {
+        FileContentCache<String> cache = new FileContentCache<>(r -> "content");
+        assertFalse(cache.get(new File(folder.getRoot(), "does-not-exist")).isPresent());
+    }
+}
@@ -0,0 +1,110 @@
+package io.jshift.kit.common.util;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PluginServiceFactoryTest {
+
+    @Test
+    public void orderedServices() {
+        PluginServiceFactory<String> factory = new PluginServiceFactory<>("ctx");
+        List<TestService> services = factory.createServiceObjects("service/test-default");
+        assertEquals(3, services.size());
+        assertEquals(ThirdService.class, services.get(0).getClass());
+        assertEquals(FirstService.class, services.get(1).getClass());
+        assertEquals(SecondService.class, services.get(2).getClass());
+        assertEquals("ctx", services.get(0).context);
+    }
+
+    @Test
+    public void removedServices() {
+        PluginServiceFactory<String> factory = new PluginServiceFactory<>("ctx");
+        List<TestService> services = factory.createServiceObjects("service/test-default", "service/test-custom");
+        assertEquals(2, services.size());
+        assertEquals(ThirdService.class, services.get(0).getClass());
+        assertEquals(FirstService.class, services.get(1).getClass());
+    }
+
+    @Test
+    public void newInstancesFromCachedIndex() {
+        List<TestService> first = new PluginServiceFactory<>("one").createServiceObjects("service/test-default");
+        List<TestService> second = new PluginServiceFactory<>("two").createServiceObjects("service/test-default");
+        assertEquals(first.size(), second.size());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals("two", second.get(0).context);
+    }
+
+    @Test
+    public void cachedIndexDoesNotHoldOnToClassLoaders() throws InterruptedException {
+        URLClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        new PluginServiceFactory<>("ctx", loader).createServiceObjects("service/test-default");
+
+        WeakReference<ClassLoader> ref = new WeakReference<>(loader);
+        loader = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    public void cachedServiceClassesDoNotHoldOnToClassLoaders() throws InterruptedException {
+        URL testClasses = PluginServiceFactoryTest.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader loader = new URLClassLoader(new URL[] { testClasses }, null);
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            List<Object> first = new PluginServiceFactory<>("ctx").createServiceObjects("service/test-default");
+            List<Object> second = new PluginServiceFactory<>("ctx").createServiceObjects("service/test-default");
+            assertSame(loader, first.get(0).getClass().getClassLoader());
+            assertSame(first.get(0).getClass(), second.get(0).getClass());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+
+        WeakReference<ClassLoader> ref = new WeakReference<>(loader);
+        loader = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    public static class TestService {
+        final String context;
+
+        TestService(String context) {
+            this.context = context;
+        }
+    }
+
+    public static class FirstService extends TestService {
+        public FirstService(String context) {
+            super(context);
+        }
+    }
+
+    public static class SecondService extends TestService {
+        public SecondService(String context) {
+            super(context);
+        }
+    }
+
+    public static class ThirdService extends TestService {
+        public ThirdService(String context) {
+            super(context);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.jshift.kit.common.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectFactsTest {
+
+    @Test
+    public void plugins() {
+        Plugin boot = plugin("org.springframework.boot", "spring-boot-maven-plugin");
+        Plugin war = plugin("org.apache.maven.plugins", "maven-war-plugin");
+        ProjectFacts facts = new ProjectFacts(createProject(boot, war, plugin("other", "spring-boot-maven-plugin")));
+
+        assertTrue(facts.hasPlugin("org.apache.maven.plugins", "maven-war-plugin"));
+        assertFalse(facts.hasPlugin("org.apache.maven.plugins", "spring-boot-maven-plugin"));
+        assertSame(boot, facts.getPluginOfAnyGroupId("spring-boot-maven-plugin"));
+        assertSame(war, facts.getPlugin(null, "maven-war-plugin"));
+        assertFalse(facts.hasPluginOfAnyGroupId("maven-shade-plugin"));
+    }
+
+    @Test
+    public void dependencies() {
+        MavenProject project = createProject();
+        project.setArtifacts(new LinkedHashSet<>(Arrays.asList(
+            artifact("io.vertx", "vertx-core", "3.5.0", Artifact.SCOPE_COMPILE),
+            artifact("io.vertx", "vertx-dropwizard-metrics", "3.5.1", Artifact.SCOPE_RUNTIME),
+            artifact("junit", "junit", "4.12", Artifact.SCOPE_TEST))));
+        ProjectFacts facts = new ProjectFacts(project);
+
+        assertEquals("3.5.1", facts.getDependencyVersion("io.vertx", "vertx-dropwizard-metrics"));
+        assertEquals("3.5.0", facts.getDependencyVersion("io.vertx", null));
+        assertTrue(facts.hasDependency("io.vertx", "vertx-core"));
+        assertFalse(facts.hasDependency("junit", "junit"));
+        assertNull(facts.getDependencyVersion("junit", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pluginArtifactIdIsRequired() {
+        new ProjectFacts(createProject()).getPlugin("org.apache.maven.plugins", null);
+    }
+
+    private MavenProject createProject(Plugin... plugins) {
+        Build build = new Build();
+        for (Plugin plugin : plugins) {
+            build.addPlugin(plugin);
+        }
+        Model model = new Model();
+        model.setBuild(build);
+        return new MavenProject(model);
+    }
+
+    private Plugin plugin(String groupId, String artifactId) {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId(groupId);
+        plugin.setArtifactId(artifactId);
+        return plugin;
+    }
+
+    private Artifact artifact(String groupId, String artifactId, String version, String scope) {
+        return new DefaultArtifact(groupId, artifactId, version, scope, "jar", null, new DefaultArtifactHandler("jar"));
+    }
+}
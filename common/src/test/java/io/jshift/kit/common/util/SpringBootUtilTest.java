@@ -0,0 +1,82 @@
+package io.jshift.kit.common.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SpringBootUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void profileSpecificConfiguration() throws IOException {
+        write("application.yml",
+              "server:\n  port: 8080\nmanagement:\n  port: 8081\n" +
+              "---\nspring:\n  profiles: dev\nserver:\n  port: 9090\n" +
+              "---\nspring:\n  profiles: prod, cloud\nserver:\n  port: 80\n");
+        write("application.properties", "app.name=demo\n");
+        write("application-cloud.properties", "app.name=cloud-demo\n");
+
+        try (URLClassLoader classLoader = createClassLoader()) {
+            Properties defaults = SpringBootUtil.getSpringBootApplicationProperties(classLoader);
+            assertEquals("8080", defaults.getProperty("server.port"));
+            assertEquals("demo", defaults.getProperty("app.name"));
+            assertNull(defaults.getProperty("spring.profiles"));
+
+            Properties dev = SpringBootUtil.getSpringBootApplicationProperties("dev", classLoader);
+            assertEquals("9090", dev.getProperty("server.port"));
+            assertEquals("8081", dev.getProperty("management.port"));
+
+            Properties cloud = SpringBootUtil.getSpringBootApplicationProperties("cloud", classLoader);
+            assertEquals("80", cloud.getProperty("server.port"));
+            assertEquals("cloud-demo", cloud.getProperty("app.name"));
+        }
+    }
+
+    @Test
+    public void changedFilesAreReadAgain() throws IOException {
+        File yml = write("application.yml", "server:\n  port: 8080\n");
+        try (URLClassLoader classLoader = createClassLoader()) {
+            Properties props = SpringBootUtil.getSpringBootApplicationProperties(classLoader);
+            assertEquals("8080", props.getProperty("server.port"));
+
+            // Callers get their own copy
+            props.setProperty("server.port", "1");
+            assertEquals("8080", SpringBootUtil.getSpringBootApplicationProperties(classLoader).getProperty("server.port"));
+
+            write("application.yml", "server:\n  port: 9090\n");
+            yml.setLastModified(yml.lastModified() + 10000);
+            assertEquals("9090", SpringBootUtil.getSpringBootApplicationProperties(classLoader).getProperty("server.port"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidYaml() throws IOException {
+        write("application.yml", "- one\n- two\n");
+        try (URLClassLoader classLoader = createClassLoader()) {
+            SpringBootUtil.getSpringBootApplicationProperties(classLoader);
+        }
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private URLClassLoader createClassLoader() throws IOException {
+        return new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, null);
+    }
+}
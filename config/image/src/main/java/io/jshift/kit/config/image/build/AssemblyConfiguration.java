@@ -4,6 +4,8 @@ package io.jshift.kit.config.image.build;
 import org.apache.maven.plugins.assembly.model.Assembly;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AssemblyConfiguration implements Serializable {
 
@@ -39,6 +41,13 @@ public class AssemblyConfiguration implements Serializable {
 
     private String tarLongFileMode;
 
+    /**
+     * Subdirectories of the assembly which are copied into the image one after another,
+     * each with its own COPY so that it ends up in its own image layer. Content which
+     * changes more often should come last. If not set, the assembly is copied as a whole.
+     */
+    private List<String> layers;
+
     public Boolean getExportTargetDir() {
         return exportTargetDir;
     }
@@ -79,6 +88,10 @@ public class AssemblyConfiguration implements Serializable {
         return name;
     }
 
+    public List<String> getLayers() {
+        return layers;
+    }
+
     public static class Builder {
 
         protected AssemblyConfiguration config;
@@ -145,6 +158,11 @@ public class AssemblyConfiguration implements Serializable {
             return this;
         }
 
+        public Builder layers(List<String> layers) {
+            config.layers = set(layers != null ? new ArrayList<>(layers) : null);
+            return this;
+        }
+
         protected <T> T set(T prop) {
             if (prop != null) {
                 isEmpty = false;
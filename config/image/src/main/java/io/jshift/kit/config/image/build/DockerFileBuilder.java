@@ -6,6 +6,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,9 @@ public class DockerFileBuilder {
     // User under which the files should be added
     private String assemblyUser;
 
+    // Whether the assembly user is applied with COPY --chown, keeping every copy entry in its own layer
+    private boolean copyWithChown = false;
+
     // User to run as
     private String user;
 
@@ -189,11 +193,19 @@ public class DockerFileBuilder {
 
     private void addCopy(StringBuilder b) {
         if (assemblyUser != null) {
-            String tmpDir = createTempDir();
-            addCopyEntries(b, tmpDir);
-
             String[] userParts = StringUtils.split(assemblyUser, ":");
             String userArg = userParts.length > 1 ? userParts[0] + ":" + userParts[1] : userParts[0];
+            if (copyWithChown) {
+                // A single chown RUN would squash all entries into one layer, so change ownership per COPY
+                addCopyEntries(b, "", "--chown=" + userArg);
+                if (userParts.length > 2) {
+                    DockerFileKeyword.USER.addTo(b, userParts[2]);
+                }
+                return;
+            }
+
+            String tmpDir = createTempDir();
+            addCopyEntries(b, tmpDir);
             String chmod = "chown -R " + userArg + " " + tmpDir + " && cp -rp " + tmpDir + "/* / && rm -rf " + tmpDir;
             if (userParts.length > 2) {
                 DockerFileKeyword.USER.addTo(b, "root");
@@ -211,10 +223,13 @@ public class DockerFileBuilder {
          return "/tmp/" + UUID.randomUUID().toString();
     }
 
-    private void addCopyEntries(StringBuilder b, String topLevelDir) {
+    private void addCopyEntries(StringBuilder b, String topLevelDir, String... options) {
         for (CopyEntry entry : copyEntries) {
             String dest = topLevelDir + (basedir.equals("/") ? "" : basedir) + "/" + entry.destination;
-            DockerFileKeyword.COPY.addTo(b, entry.source, dest);
+            String[] args = Arrays.copyOf(options, options.length + 2);
+            args[options.length] = entry.source;
+            args[options.length + 1] = dest;
+            DockerFileKeyword.COPY.addTo(b, args);
         }
     }
 
@@ -384,6 +399,19 @@ public class DockerFileBuilder {
         return this;
     }
 
+    /**
+     * Apply the assembly user with <code>COPY --chown</code> instead of copying to a temporary
+     * directory and moving the files with a single <code>RUN</code>. Needed when the copy entries
+     * should end up in separate image layers.
+     *
+     * @param copyWithChown whether to use <code>COPY --chown</code>
+     * @return this builder
+     */
+    public DockerFileBuilder copyWithChown(boolean copyWithChown) {
+        this.copyWithChown = copyWithChown;
+        return this;
+    }
+
     public DockerFileBuilder user(String user) {
         this.user = user;
         return this;
@@ -16,11 +16,19 @@
 package io.jshift.maven.generator.api;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
 
 /**
+ * Lookup of default image names. The properties are read only once per class loader,
+ * and are then shared by all lookups created for classes of this class loader.
+ *
  * @author roland
  * @since 05/10/16
  */
@@ -28,26 +36,49 @@ public class DefaultImageLookup {
 
     public static final String DEFAULT_IMAGES_PROPERTIES = "META-INF/jshift/default-images.properties";
 
-    private final Properties defaultImageProps;
+    // Weak keys so that plugin class loaders can still be garbage collected
+    private static final Map<ClassLoader, Map<String, String>> CACHE = new WeakHashMap<>();
+
+    private final Map<String, String> defaultImageProps;
 
     public DefaultImageLookup(Class realm) {
-        defaultImageProps = new Properties();
-        try {
-            Enumeration<URL> resourceUrls = realm.getClassLoader().getResources(DEFAULT_IMAGES_PROPERTIES);
-            while (resourceUrls.hasMoreElements()) {
-                URL resourceUrl = resourceUrls.nextElement();
-                defaultImageProps.load(resourceUrl.openStream());
-            }
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Cannot load default images properties " + DEFAULT_IMAGES_PROPERTIES + ": " + e, e);
-        }
+        ClassLoader classLoader = realm.getClassLoader();
+        defaultImageProps = getDefaultImageProps(classLoader != null ? classLoader : ClassLoader.getSystemClassLoader());
     }
 
     public String getImageName(String key) {
-        String val = defaultImageProps.getProperty(key);
+        String val = defaultImageProps.get(key);
         if (val == null) {
             throw new IllegalArgumentException("No such key " + key + " contained in " + DEFAULT_IMAGES_PROPERTIES + " for fetching the default image names");
         }
         return val;
     }
+
+    private static synchronized Map<String, String> getDefaultImageProps(ClassLoader classLoader) {
+        Map<String, String> ret = CACHE.get(classLoader);
+        if (ret == null) {
+            ret = loadDefaultImageProps(classLoader);
+            CACHE.put(classLoader, ret);
+        }
+        return ret;
+    }
+
+    private static Map<String, String> loadDefaultImageProps(ClassLoader classLoader) {
+        Properties props = new Properties();
+        try {
+            Enumeration<URL> resourceUrls = classLoader.getResources(DEFAULT_IMAGES_PROPERTIES);
+            while (resourceUrls.hasMoreElements()) {
+                try (InputStream is = resourceUrls.nextElement().openStream()) {
+                    props.load(is);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot load default images properties " + DEFAULT_IMAGES_PROPERTIES + ": " + e, e);
+        }
+        Map<String, String> ret = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            ret.put(key, props.getProperty(key));
+        }
+        return Collections.unmodifiableMap(ret);
+    }
 }
@@ -84,38 +84,36 @@ public abstract class FromSelector {
 
     public static class Default extends FromSelector {
 
-        private final String upstreamDocker;
-        private final String upstreamS2i;
-        private final String redhatDocker;
-        private final String redhatS2i;
-        private final String redhatIstag;
-        private final String upstreamIstag;
+        private final String prefix;
+
+        // Looked up only when an image is requested, so that creating a generator which is
+        // not applicable doesn't load the default images
+        private DefaultImageLookup lookup;
 
         public Default(GeneratorContext context, String prefix) {
             super(context);
-            DefaultImageLookup lookup = new DefaultImageLookup(Default.class);
-
-            this.upstreamDocker = lookup.getImageName(prefix + ".upstream.docker");
-            this.upstreamS2i = lookup.getImageName(prefix + ".upstream.s2i");
-            this.upstreamIstag = lookup.getImageName(prefix + ".upstream.istag");
-
-            this.redhatDocker = lookup.getImageName(prefix + ".redhat.docker");
-            this.redhatS2i = lookup.getImageName(prefix + ".redhat.s2i");
-            this.redhatIstag = lookup.getImageName(prefix + ".redhat.istag");
+            this.prefix = prefix;
         }
 
         @Override
         protected String getDockerBuildFrom() {
-            return isRedHat() ? redhatDocker : upstreamDocker;
+            return getImageName(isRedHat() ? ".redhat.docker" : ".upstream.docker");
         }
 
         @Override
         protected String getS2iBuildFrom() {
-            return isRedHat() ? redhatS2i : upstreamS2i;
+            return getImageName(isRedHat() ? ".redhat.s2i" : ".upstream.s2i");
         }
 
         protected String getIstagFrom() {
-            return isRedHat() ? redhatIstag : upstreamIstag;
+            return getImageName(isRedHat() ? ".redhat.istag" : ".upstream.istag");
+        }
+
+        private synchronized String getImageName(String suffix) {
+            if (lookup == null) {
+                lookup = new DefaultImageLookup(Default.class);
+            }
+            return lookup.getImageName(prefix + suffix);
         }
     }
 }
@@ -15,11 +15,17 @@
  */
 package io.jshift.maven.generator.api;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
 import io.jshift.kit.common.KitLogger;
 import io.jshift.kit.common.service.ArtifactResolverService;
+import io.jshift.kit.common.util.ProjectFacts;
 import io.jshift.kit.config.image.build.OpenShiftBuildStrategy;
 import io.jshift.kit.config.image.build.RuntimeMode;
 import io.jshift.kit.config.resource.ProcessorConfig;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 
 /**
@@ -39,6 +45,10 @@ public class GeneratorContext {
 
     private GeneratorMode generatorMode = GeneratorMode.BUILD;
 
+    // Facts about the project which are shared between generators, computed at most once
+    private final ConcurrentHashMap<String, FutureTask<Object>> facts = new ConcurrentHashMap<>();
+    private ProjectFacts projectFacts;
+
     private GeneratorContext() {
     }
 
@@ -79,6 +89,68 @@ public class GeneratorContext {
         return prePackagePhase;
     }
 
+    /**
+     * Get the index of the project's plugins and dependencies, which is created on first use
+     * and then shared by all generators.
+     *
+     * @return project facts
+     */
+    public synchronized ProjectFacts getProjectFacts() {
+        if (projectFacts == null) {
+            projectFacts = new ProjectFacts(project);
+        }
+        return projectFacts;
+    }
+
+    /**
+     * Get a fact about the project which is shared by all generators, like the result of a
+     * file system scan. The fact is computed only once, even when generators ask concurrently,
+     * and further calls return the memoized value.
+     *
+     * @param key unique key of the fact
+     * @param supplier used for computing the fact if not yet known
+     * @param <T> type of the fact
+     * @return the fact, which might be null
+     * @throws MojoExecutionException if computing the fact failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getFact(String key, FactSupplier<T> supplier) throws MojoExecutionException {
+        FutureTask<Object> task = new FutureTask<>(supplier::get);
+        FutureTask<Object> existing = facts.putIfAbsent(key, task);
+        if (existing == null) {
+            task.run();
+        } else {
+            task = existing;
+        }
+        try {
+            return (T) task.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for " + key, exp);
+        } catch (ExecutionException exp) {
+            Throwable cause = exp.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MojoExecutionException("Cannot determine " + key + ": " + cause, cause);
+        }
+    }
+
+    /**
+     * Computation of a project fact
+     *
+     * @param <T> type of the fact
+     */
+    public interface FactSupplier<T> {
+        T get() throws MojoExecutionException;
+    }
+
     // ========================================================================
 
     public static class Builder {
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.jshift.maven.generator.api;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.jshift.kit.common.util.ClassLoaderCache;
+import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.PluginServiceFactory;
+import io.jshift.kit.config.image.ImageConfiguration;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Runs the generators of a project. The applicability of all generators is checked
+ * concurrently up front, since these checks might examine the project on disk. The
+ * applicable generators are then called in the configured order.
+ * <p>
+ * The up front checks are only valid as long as no generator has changed the image
+ * configurations. Generators after the first customizing generator are checked again
+ * with the changed configurations, which is cheap since expensive project facts are
+ * memoized in the {@link GeneratorContext}.
+ */
+public class GeneratorPipeline {
+
+    static final String[] SERVICE_PATHS = new String[] {
+        "META-INF/jshift/generator-default",
+        "META-INF/jshift/jshift-generator",
+        "META-INF/jshift/generator"
+    };
+
+    private final GeneratorContext context;
+
+    // Given generators, or null if they are looked up for every run
+    private final List<Generator> generators;
+
+    /**
+     * Create a pipeline with all generators found on the classpath, filtered and ordered
+     * according to the context's configuration. The generators are looked up anew for every
+     * run, so that the project class loader they use is part of the run's session.
+     *
+     * @param context generator context
+     */
+    public GeneratorPipeline(GeneratorContext context) {
+        this(context, null);
+    }
+
+    /**
+     * Create a pipeline for the given generators
+     *
+     * @param context generator context
+     * @param generators generators in the order in which they should be applied
+     */
+    public GeneratorPipeline(GeneratorContext context, List<Generator> generators) {
+        this.context = context;
+        this.generators = generators;
+    }
+
+    public List<Generator> getGenerators() {
+        return Collections.unmodifiableList(generators != null ? generators : lookupGenerators(context));
+    }
+
+    /**
+     * Let all applicable generators customize the given image configurations
+     *
+     * @param configs the image configurations to start with
+     * @return the customized image configurations
+     * @throws MojoExecutionException if a generator fails
+     */
+    public List<ImageConfiguration> run(List<ImageConfiguration> configs) throws MojoExecutionException {
+        // Project class loaders opened by the generators are shared until the run is over
+        ClassLoaderCache.beginSession();
+        try {
+            List<Generator> generators = getGenerators();
+            List<Boolean> applicable = checkApplicability(generators, configs);
+            List<ImageConfiguration> ret = configs;
+            boolean customized = false;
+            for (int i = 0; i < generators.size(); i++) {
+                Generator generator = generators.get(i);
+                if (customized ? generator.isApplicable(ret) : applicable.get(i)) {
+                    context.getLogger().info("Running generator %s", generator.getName());
+                    ret = generator.customize(ret, context.isPrePackagePhase());
+                    customized = true;
+                }
+            }
+            return ret;
+        } finally {
+            endClassLoaderSession();
+        }
+    }
+
+    private void endClassLoaderSession() {
+        try {
+            ClassLoaderCache.endSession();
+        } catch (IOException exp) {
+            context.getLogger().warn("Cannot close project class loaders: %s", exp.getMessage());
+        }
+    }
+
+    private List<Boolean> checkApplicability(List<Generator> generators, List<ImageConfiguration> configs)
+            throws MojoExecutionException {
+        if (generators.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // The checks must not change the configurations they are looking at
+        List<ImageConfiguration> snapshot = Collections.unmodifiableList(new ArrayList<>(configs));
+        int threads = Math.min(generators.size(), Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "generator-check-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Generator generator : generators) {
+                futures.add(executor.submit(() -> generator.isApplicable(snapshot)));
+            }
+            List<Boolean> ret = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                ret.add(waitFor(generators.get(i), futures.get(i)));
+            }
+            return ret;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean waitFor(Generator generator, Future<Boolean> future) throws MojoExecutionException {
+        try {
+            return future.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while checking generator " + generator.getName(), exp);
+        } catch (ExecutionException exp) {
+            Throwable cause = exp.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new MojoExecutionException("Cannot check generator " + generator.getName() + ": " + cause, cause);
+        }
+    }
+
+    private static List<Generator> lookupGenerators(GeneratorContext context) {
+        PluginServiceFactory<GeneratorContext> pluginFactory = new PluginServiceFactory<>(context);
+        if (context.isUseProjectClasspath()) {
+            pluginFactory.addAdditionalClassLoader(MavenUtil.getCompileClassLoader(context.getProject()));
+        }
+        List<Generator> generators = pluginFactory.createServiceObjects(SERVICE_PATHS);
+        return context.getConfig().prepareProcessors(generators, "generator");
+    }
+}
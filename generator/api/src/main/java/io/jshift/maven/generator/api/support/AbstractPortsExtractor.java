@@ -16,28 +16,37 @@
 package io.jshift.maven.generator.api.support;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.regex.Pattern;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.jshift.maven.generator.api.PortsExtractor;
 import io.jshift.kit.common.Configs;
 import io.jshift.kit.common.PrefixedLogger;
+import io.jshift.kit.common.util.FileContentCache;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.project.MavenProject;
 
 public abstract class AbstractPortsExtractor implements PortsExtractor {
 
-    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
-    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonFactory YAML_FACTORY = new YAMLFactory();
 
-    private static final String DOT = ".";
+    private static final char DOT = '.';
     private static final String JSON_EXTENSION = ".json";
     private static final String YAML_EXTENSION = ".yaml";
     private static final String YML_EXTENSION = ".yml";
@@ -45,8 +54,15 @@ public abstract class AbstractPortsExtractor implements PortsExtractor {
 
     private static final String NUMBER_REGEX = "\\d+";
 
-    private static final String PORT_REGEX = "([a-zA-Z0-9_]+)(([\\.-_]+p)|([P]))ort";
-    private static final Pattern PORT_PATTERN = Pattern.compile(PORT_REGEX);
+    private static final String PORT_SUFFIX = "ort";
+
+    // Extracted ports per config file, only read again when the file changes
+    private static final FileContentCache<Map<String, Integer>> JSON_CACHE =
+        new FileContentCache<>(StandardCharsets.UTF_8, reader -> extractPorts(JSON_FACTORY, reader));
+    private static final FileContentCache<Map<String, Integer>> YAML_CACHE =
+        new FileContentCache<>(StandardCharsets.UTF_8, reader -> extractPorts(YAML_FACTORY, reader));
+    private static final FileContentCache<Map<String, Integer>> PROPERTIES_CACHE =
+        new FileContentCache<>(StandardCharsets.ISO_8859_1, AbstractPortsExtractor::extractPorts);
 
     private final PrefixedLogger log;
 
@@ -96,94 +112,152 @@ public abstract class AbstractPortsExtractor implements PortsExtractor {
             return answer;
         }
 
+        FileContentCache<Map<String, Integer>> cache = getCache(configFile);
         try {
-            Map<String, String> configMap = readConfig(configFile);
-            for (Map.Entry<String, String> entry : configMap.entrySet()) {
-                String key = entry.getKey();
-                if (isValidPortPropertyKey(key)) {
-                    addPortIfValid(answer, key, entry.getValue());
-                }
+            Optional<Map<String, Integer>> ports = cache.get(configFile);
+            if (!ports.isPresent()) {
+                log.warn("Error reading config: [%s]. Ignoring.", configFile.getAbsolutePath());
+                return answer;
             }
+            answer.putAll(ports.get());
             return answer;
-        } catch (IOException e) {
-            log.warn("Error reading config: [%s], due to: [%s]. Ignoring.", configFile.getAbsolutePath(), e.getMessage());
+        } catch (UncheckedIOException e) {
+            log.warn("Error reading config: [%s], due to: [%s]. Ignoring.", configFile.getAbsolutePath(), e.getCause().getMessage());
             return answer;
         }
     }
 
-
-
-    /**
-     * Reads the configuration from the file.
-     * @param f
-     * @return
-     * @throws IOException
-     */
-    private Map<String, String> readConfig(File f) throws IOException {
-        Map<String, String> map;
+    private FileContentCache<Map<String, Integer>> getCache(File f) {
         if (f.getName().endsWith(JSON_EXTENSION)) {
-            map = flatten(JSON_MAPPER.readValue(f, Map.class));
+            return JSON_CACHE;
         } else if (f.getName().endsWith(YAML_EXTENSION) || f.getName().endsWith(YML_EXTENSION)) {
-            map = flatten(YAML_MAPPER.readValue(f, Map.class));
+            return YAML_CACHE;
         } else if (f.getName().endsWith(PROPERTIES_EXTENSION)) {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream(f));
-            map = propertiesToMap(properties);
+            return PROPERTIES_CACHE;
         } else {
             throw new IllegalArgumentException("Can't read configuration from: [" + f.getName() + "]. Unknown file extension.");
         }
-        return map;
     }
 
-
-
     /**
-     * Flattens a nested map into a Map<String, String>.
-     * @param map   The target map.
-     * @return      The flattened map.
+     * Extracts the ports from a JSON or YAML document in a single pass over its tokens.
+     * Nested keys are joined with a dot, lists are skipped.
+     * @param factory   The factory for the document's format.
+     * @param reader    The document.
+     * @return          The ports found.
      */
-    private Map<String, String> flatten(Map map) {
-        Map<String, String> flat = new HashMap<>();
-        for (Object key : map.keySet()) {
-            String stringKey = String.valueOf(key);
-            Object value = map.get(key);
-            if (value instanceof String) {
-                flat.put(stringKey, (String) value);
-            } else if (value instanceof Map) {
-                for (Map.Entry<String, String> entry : flatten((Map) value).entrySet()) {
-                    flat.put(
-                            new StringBuilder(stringKey).append(DOT).append(entry.getKey()).toString(),
-                            entry.getValue());
+    private static Map<String, Integer> extractPorts(JsonFactory factory, Reader reader) {
+        Map<String, Integer> ports = new HashMap<>();
+        try (JsonParser parser = factory.createParser(reader)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return Collections.emptyMap();
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Configuration must be an object, not " + token);
+            }
+            StringBuilder key = new StringBuilder();
+            Deque<Integer> parentLengths = new ArrayDeque<>();
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.END_OBJECT) {
+                    if (parentLengths.isEmpty()) {
+                        // Only the first document counts
+                        break;
+                    }
+                    key.setLength(parentLengths.pop());
+                    continue;
+                }
+                // Always a field name here, followed by its value
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT) {
+                    parentLengths.push(key.length());
+                    key.append(name).append(DOT);
+                } else if (token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if (name.endsWith(PORT_SUFFIX)) {
+                    int length = key.length();
+                    key.append(name);
+                    if (isValidPortPropertyKey(key)) {
+                        addPortIfValid(ports, key.toString(), getScalarValue(parser, token));
+                    }
+                    key.setLength(length);
                 }
-            } else {
-                flat.put(stringKey, String.valueOf(value));
             }
+            return Collections.unmodifiableMap(ports);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return flat;
     }
 
+    // Numbers are taken as parsed, so that e.g. YAML's hex numbers are converted
+    private static String getScalarValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return String.valueOf(parser.getNumberValue());
+        }
+        return token == JsonToken.VALUE_STRING ? parser.getText() : null;
+    }
 
     /**
-     * Converts a {@link Properties} object to a {@link Map}.
-     * @param properties    The properties object.
-     * @return              The map.
+     * Extracts the ports from a properties file.
+     * @param reader    The properties file.
+     * @return          The ports found.
      */
-    private Map<String, String> propertiesToMap(Properties properties) {
-        Map<String, String> map = new HashMap<>();
-        for(Map.Entry<Object, Object> entry : properties.entrySet()) {
-            map.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+    private static Map<String, Integer> extractPorts(Reader reader) {
+        Properties properties = new Properties();
+        try {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return map;
+        Map<String, Integer> ports = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (isValidPortPropertyKey(key)) {
+                addPortIfValid(ports, key, properties.getProperty(key));
+            }
+        }
+        return Collections.unmodifiableMap(ports);
     }
 
     /**
      * Checks if the given string matches the port property key convention.
-     * The regex for the convention is ([a-zA-Z0-9_]+)(([\.-_]+p{1})|([P]{1}))ort.
+     * The regex for the convention is ([a-zA-Z0-9_]+)(([\.-_]+p{1})|([P]{1}))ort, which is matched
+     * here without backtracking. Note that [\.-_] is the character range from '.' to '_'.
      * @param candidate The string to check
-     * @return
+     * @return true if the candidate is a port property key
      */
-    private boolean isValidPortPropertyKey(String candidate) {
-        return PORT_PATTERN.matcher(candidate).matches();
+    static boolean isValidPortPropertyKey(CharSequence candidate) {
+        int end = candidate.length() - PORT_SUFFIX.length();
+        if (end < 2 || !PORT_SUFFIX.contentEquals(candidate.subSequence(end, candidate.length()))) {
+            return false;
+        }
+        char marker = candidate.charAt(end - 1);
+        // The part before the 'p' or 'P'
+        int length = end - 1;
+        int wordChars = 0;
+        while (wordChars < length && isWordChar(candidate.charAt(wordChars))) {
+            wordChars++;
+        }
+        if (marker == 'P') {
+            return wordChars == length;
+        }
+        if (marker != 'p') {
+            return false;
+        }
+        // Needs at least one word char followed by at least one separator char
+        int separatorChars = 0;
+        while (separatorChars < length && isSeparatorChar(candidate.charAt(length - 1 - separatorChars))) {
+            separatorChars++;
+        }
+        return Math.max(1, length - separatorChars) <= Math.min(wordChars, length - 1);
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isSeparatorChar(char c) {
+        return c >= '.' && c <= '_';
     }
 
     /**
@@ -192,7 +266,7 @@ public abstract class AbstractPortsExtractor implements PortsExtractor {
      * @param key   The key.
      * @param port  The candidate port.
      */
-    private void addPortIfValid(Map<String, Integer> map, String key, String port) {
+    private static void addPortIfValid(Map<String, Integer> map, String key, String port) {
         if (StringUtils.isNotBlank(port)) {
             String t = port.trim();
             if (t.matches(NUMBER_REGEX)) {
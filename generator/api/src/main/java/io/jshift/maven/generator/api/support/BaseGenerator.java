@@ -22,6 +22,7 @@ import java.util.Map;
 
 import io.jshift.kit.common.Configs;
 import io.jshift.kit.common.PrefixedLogger;
+import io.jshift.kit.common.util.ProjectFacts;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.kit.config.image.ImageName;
 import io.jshift.kit.config.image.build.BuildConfiguration;
@@ -92,6 +93,11 @@ abstract public class BaseGenerator implements Generator {
         return context;
     }
 
+    // Plugins and dependencies of the project, indexed once for all generators
+    protected ProjectFacts getProjectFacts() {
+        return context.getProjectFacts();
+    }
+
     protected String getConfig(Configs.Key key) {
         return config.get(key);
     }
@@ -0,0 +1,30 @@
+package io.jshift.maven.generator.api;
+
+import java.util.Map;
+
+import mockit.Deencapsulation;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DefaultImageLookupTest {
+
+    @Test
+    public void lookup() {
+        DefaultImageLookup lookup = new DefaultImageLookup(getClass());
+        assertEquals("docker-prop", lookup.getImageName("test.upstream.docker"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownKey() {
+        new DefaultImageLookup(getClass()).getImageName("test.unknown");
+    }
+
+    @Test
+    public void propertiesSharedPerClassLoader() {
+        Map<String, String> first = Deencapsulation.getField(new DefaultImageLookup(getClass()), "defaultImageProps");
+        Map<String, String> second = Deencapsulation.getField(new DefaultImageLookup(FromSelector.class), "defaultImageProps");
+        assertSame(first, second);
+    }
+}
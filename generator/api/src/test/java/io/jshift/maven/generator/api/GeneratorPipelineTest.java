@@ -0,0 +1,132 @@
+package io.jshift.maven.generator.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.config.image.ImageConfiguration;
+import mockit.Mocked;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GeneratorPipelineTest {
+
+    @Mocked
+    private KitLogger logger;
+
+    @Test
+    public void applicabilityIsCheckedInWorkerThreads() throws MojoExecutionException {
+        List<TestGenerator> generators = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            generators.add(new TestGenerator("gen" + i, i == 0));
+        }
+
+        List<ImageConfiguration> configs = createPipeline(generators.toArray(new Generator[0])).run(new ArrayList<>());
+
+        assertEquals(1, configs.size());
+        assertEquals("gen0", configs.get(0).getName());
+        // The pool is capped at the number of processors, and every worker has its own name
+        Set<String> threads = new HashSet<>();
+        for (TestGenerator generator : generators) {
+            assertTrue(generator.thread, generator.thread.matches("generator-check-\\d+"));
+            threads.add(generator.thread);
+        }
+        assertTrue(threads.size() <= Math.min(generators.size(), Runtime.getRuntime().availableProcessors()));
+    }
+
+    @Test
+    public void generatorsAreRecheckedAfterCustomization() throws MojoExecutionException {
+        TestGenerator first = new TestGenerator("first", true);
+        TestGenerator second = new TestGenerator("second", true);
+        TestGenerator third = new TestGenerator("third", true);
+
+        List<ImageConfiguration> configs = createPipeline(first, second, third).run(new ArrayList<>());
+
+        // Only the first generator kicks in, since the others don't add an image if there is one already
+        assertEquals(1, configs.size());
+        assertEquals("first", configs.get(0).getName());
+        assertEquals(1, first.checks.get());
+        assertEquals(2, second.checks.get());
+        assertEquals(2, third.checks.get());
+    }
+
+    @Test
+    public void errorsArePropagated() {
+        TestGenerator failing = new TestGenerator("failing", true) {
+            @Override
+            public boolean isApplicable(List<ImageConfiguration> configs) throws MojoExecutionException {
+                throw new MojoExecutionException("Cannot check");
+            }
+        };
+        try {
+            createPipeline(new TestGenerator("ok", false), failing).run(new ArrayList<>());
+            fail();
+        } catch (MojoExecutionException exp) {
+            assertEquals("Cannot check", exp.getMessage());
+        }
+    }
+
+    @Test
+    public void factsAreComputedOnce() throws MojoExecutionException {
+        GeneratorContext context = new GeneratorContext.Builder().logger(logger).build();
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals("value", context.getFact("key", () -> {
+            computations.incrementAndGet();
+            return "value";
+        }));
+        assertEquals("value", context.getFact("key", () -> "other"));
+        assertNull(context.getFact("null", () -> null));
+        assertNull(context.getFact("null", () -> "other"));
+        assertEquals(1, computations.get());
+    }
+
+    private GeneratorPipeline createPipeline(Generator... generators) {
+        GeneratorContext context = new GeneratorContext.Builder().logger(logger).build();
+        return new GeneratorPipeline(context, Arrays.asList(generators));
+    }
+
+    private static class TestGenerator implements Generator {
+
+        private final String name;
+        private final boolean applicable;
+        private final AtomicInteger checks = new AtomicInteger();
+        // Thread of the first check
+        private volatile String thread;
+
+        TestGenerator(String name, boolean applicable) {
+            this.name = name;
+            this.applicable = applicable;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isApplicable(List<ImageConfiguration> configs) throws MojoExecutionException {
+            if (checks.incrementAndGet() == 1) {
+                thread = Thread.currentThread().getName();
+            }
+            return applicable && configs.isEmpty();
+        }
+
+        @Override
+        public List<ImageConfiguration> customize(List<ImageConfiguration> existingConfigs, boolean prePackagePhase) {
+            List<ImageConfiguration> ret = new ArrayList<>(existingConfigs);
+            ret.add(new ImageConfiguration.Builder().name(name).build());
+            return Collections.unmodifiableList(ret);
+        }
+    }
+}
@@ -15,7 +15,12 @@
  */
 package io.jshift.maven.generator.api.support;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import io.jshift.maven.generator.api.PortsExtractor;
 import io.jshift.kit.common.PrefixedLogger;
@@ -23,12 +28,15 @@ import io.jshift.kit.common.util.FileUtil;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 public class AbstractPortsExtractorTest {
 
@@ -38,6 +46,9 @@ public class AbstractPortsExtractorTest {
     @Mocked
     PrefixedLogger logger;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testReadConfigFromFile() throws Exception {
         for (String path : new String[] { ".json", ".yaml",
@@ -114,8 +125,75 @@ public class AbstractPortsExtractorTest {
         }
     }
 
+    @Test
+    public void testNestedValuesAndLists() throws Exception {
+        File config = write("config.json",
+                            "{ \"http\": { \"port\": 8080, \"hosts\": [ { \"port\": 1 } ], \"ssl\": { \"port\": 1 } },\n" +
+                            "  \"https\": { \"port\": \"8443\" }, \"admin.port\": [ 9990 ], \"debug.port\": 5005.5, \"jmxPort\": \" 9999 \" }");
+        Map<String, Integer> map = extractFromConfig(config);
+        assertEquals(3, map.size());
+        assertThat(map, hasEntry("http.port", 8080));
+        assertThat(map, hasEntry("https.port", 8443));
+        assertThat(map, hasEntry("jmxPort", 9999));
+    }
+
+    @Test
+    public void testChangedFileIsReadAgain() throws Exception {
+        File config = write("config.yml", "http.port: 8080\n");
+        Map<String, Integer> map = extractFromConfig(config);
+        assertThat(map, hasEntry("http.port", 8080));
+
+        // Callers get their own copy
+        map.put("http.port", 1);
+        assertThat(extractFromConfig(config), hasEntry("http.port", 8080));
+
+        write("config.yml", "http.port: 9090\n");
+        assertTrue(config.setLastModified(config.lastModified() + 10000));
+        assertThat(extractFromConfig(config), hasEntry("http.port", 9090));
+    }
+
+    @Test
+    public void testKeyMatchingIsSameAsRegex() {
+        Pattern regex = Pattern.compile("([a-zA-Z0-9_]+)(([\\.-_]+p)|([P]))ort");
+        char[] alphabet = { 'a', 'Z', '1', '_', '.', '-', '/', 'p', 'P' };
+        // All combinations of up to 5 chars in front of "ort"
+        int combinations = 1;
+        for (int length = 0; length <= 5; length++) {
+            for (int i = 0; i < combinations; i++) {
+                StringBuilder key = new StringBuilder();
+                for (int n = i, c = 0; c < length; c++, n /= alphabet.length) {
+                    key.append(alphabet[n % alphabet.length]);
+                }
+                key.append("ort");
+                assertEquals(key.toString(), regex.matcher(key).matches(), AbstractPortsExtractor.isValidPortPropertyKey(key));
+            }
+            combinations *= alphabet.length;
+        }
+    }
+
     // ===========================================================================================================
 
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Map<String, Integer> extractFromConfig(final File file) {
+        PortsExtractor extractor = new AbstractPortsExtractor(logger) {
+            @Override
+            public String getConfigPathPropertyName() {
+                return "vertx.config";
+            }
+
+            @Override
+            public String getConfigPathFromProject(MavenProject project) {
+                return file.getAbsolutePath();
+            }
+        };
+        return extractor.extract(project);
+    }
+
     private Map<String, Integer> extractFromFile(final String propertyName, final String path) {
         PortsExtractor extractor = new AbstractPortsExtractor(logger) {
             @Override
@@ -15,23 +15,66 @@
  */
 package io.jshift.maven.generator.javaexec;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import org.apache.maven.plugin.MojoExecutionException;
 
 /**
  * Class for finding out the fat jar of a directory and provide
- * some insights into the fat jar
+ * some insights into the fat jar.
+ * <p>
+ * Only the manifest of the archives is read, which is found via the central directory at the end
+ * of the archive. Archives are examined in parallel and their main attributes are cached as long as
+ * the archive's size and modification time doesn't change. Only the most recently used archives are kept.
+ *
  * @author roland
  * @since 10/11/16
  */
 public class FatJarDetector {
 
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_MIN_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_HEADER_LENGTH = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_HEADER_LENGTH = 30;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    // Maximum number of archives whose main attributes are cached
+    static final int MAX_CACHED_ARCHIVES = 256;
+
+    // Main attributes of archives already examined, keyed by the absolute archive file. The least
+    // recently used archive is dropped when the cache is full.
+    private static final Map<File, ArchiveInfo> ARCHIVE_CACHE =
+        Collections.synchronizedMap(new LinkedHashMap<File, ArchiveInfo>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, ArchiveInfo> eldest) {
+                return size() > MAX_CACHED_ARCHIVES;
+            }
+        });
+
     private File directory;
     private Result result;
 
@@ -50,31 +93,192 @@ public class FatJarDetector {
             if (jarOrWars == null || jarOrWars.length == 0) {
                 return null;
             }
+            Arrays.sort(jarOrWars);
+            List<File> archiveFiles = Arrays.stream(jarOrWars)
+                                            .map(jarOrWar -> new File(directory, jarOrWar))
+                                            .collect(Collectors.toList());
+            List<ArchiveInfo> archives;
+            try {
+                archives = archiveFiles.parallelStream()
+                                       .map(FatJarDetector::getArchiveInfo)
+                                       .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw new MojoExecutionException(e.getMessage(), e.getCause());
+            }
             long maxSize = 0;
-            for (String jarOrWar : jarOrWars) {
-                File archiveFile = new File(directory, jarOrWar);
-                try (JarFile archive = new JarFile(archiveFile)){
-                    Manifest mf = archive.getManifest();
-                    Attributes mainAttributes = mf.getMainAttributes();
-                    if (mainAttributes != null) {
-                        String mainClass = mainAttributes.getValue("Main-Class");
-                        if (mainClass != null) {
-                            long size = archiveFile.length();
-                            // Take the largest jar / war file found
-                            if (size > maxSize) {
-                                maxSize = size;
-                                result = new Result(archiveFile, mainClass, mainAttributes);
-                            }
-                        }
-                    }
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Cannot examine file " + archiveFile + " for the manifest");
+            for (int i = 0; i < archives.size(); i++) {
+                ArchiveInfo archive = archives.get(i);
+                String mainClass = archive.getMainClass();
+                // Take the largest jar / war file found
+                if (mainClass != null && archive.size > maxSize) {
+                    maxSize = archive.size;
+                    result = new Result(archiveFiles.get(i), mainClass, archive.mainAttributes);
                 }
             }
         }
         return result;
     }
 
+    /**
+     * Forget all cached archive manifests
+     */
+    static void clearCache() {
+        ARCHIVE_CACHE.clear();
+    }
+
+    // visible for testing
+    static int getCacheSize() {
+        return ARCHIVE_CACHE.size();
+    }
+
+    // =============================================================================================
+
+    private static ArchiveInfo getArchiveInfo(File archiveFile) {
+        File key = archiveFile.getAbsoluteFile();
+        long size = key.length();
+        long lastModified = key.lastModified();
+        ArchiveInfo info = ARCHIVE_CACHE.get(key);
+        if (info != null && info.size == size && info.lastModified == lastModified) {
+            return info;
+        }
+        try {
+            Manifest mf = readManifest(key);
+            info = new ArchiveInfo(size, lastModified, mf != null ? mf.getMainAttributes() : null);
+            ARCHIVE_CACHE.put(key, info);
+            return info;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot examine file " + archiveFile + " for the manifest", e);
+        }
+    }
+
+    private static Manifest readManifest(File archiveFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+            Manifest mf = readManifestFromCentralDirectory(channel);
+            if (mf != null) {
+                return mf;
+            }
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            // Fall through to the slow path, which also reports broken archives properly
+        }
+        try (JarFile archive = new JarFile(archiveFile)) {
+            return archive.getManifest();
+        }
+    }
+
+    // Returns null if the manifest can't be read this way (e.g. for a zip64 archive)
+    private static Manifest readManifestFromCentralDirectory(FileChannel channel) throws IOException, DataFormatException {
+        long fileSize = channel.size();
+        if (fileSize < EOCD_MIN_LENGTH) {
+            return null;
+        }
+        int tailLength = (int) Math.min(fileSize, EOCD_MIN_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(channel, fileSize - tailLength, tailLength);
+        int eocd = -1;
+        for (int i = tailLength - EOCD_MIN_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return null;
+        }
+        long cenSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+        long cenOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+        if (cenOffset == 0xFFFFFFFFL || cenSize == 0xFFFFFFFFL || cenOffset + cenSize > fileSize) {
+            // zip64, left to JarFile
+            return null;
+        }
+
+        ByteBuffer cen = read(channel, cenOffset, (int) cenSize);
+        int pos = 0;
+        while (pos + CEN_HEADER_LENGTH <= cenSize && cen.getInt(pos) == CEN_SIGNATURE) {
+            int method = cen.getShort(pos + 10) & 0xFFFF;
+            long compressedSize = cen.getInt(pos + 20) & 0xFFFFFFFFL;
+            long uncompressedSize = cen.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+            int extraLength = cen.getShort(pos + 30) & 0xFFFF;
+            int commentLength = cen.getShort(pos + 32) & 0xFFFF;
+            long localOffset = cen.getInt(pos + 42) & 0xFFFFFFFFL;
+            if (isManifest(cen, pos + CEN_HEADER_LENGTH, nameLength)) {
+                return readManifestEntry(channel, method, compressedSize, uncompressedSize, localOffset);
+            }
+            pos += CEN_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+        // An empty manifest if the whole central directory has been read without finding one
+        return pos == cenSize ? new Manifest() : null;
+    }
+
+    private static Manifest readManifestEntry(FileChannel channel, int method, long compressedSize,
+                                              long uncompressedSize, long localOffset)
+        throws IOException, DataFormatException {
+        if ((method != STORED && method != DEFLATED) ||
+            compressedSize > Integer.MAX_VALUE || uncompressedSize > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer loc = read(channel, localOffset, LOC_HEADER_LENGTH);
+        if (loc.getInt(0) != LOC_SIGNATURE) {
+            return null;
+        }
+        long dataOffset = localOffset + LOC_HEADER_LENGTH + (loc.getShort(26) & 0xFFFF) + (loc.getShort(28) & 0xFFFF);
+        ByteBuffer data = read(channel, dataOffset, (int) compressedSize);
+
+        byte[] content;
+        if (method == STORED) {
+            content = data.array();
+        } else {
+            content = new byte[(int) uncompressedSize];
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data.array());
+                int length = inflater.inflate(content);
+                if (length != content.length) {
+                    return null;
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+        return new Manifest(new ByteArrayInputStream(content));
+    }
+
+    private static boolean isManifest(ByteBuffer cen, int nameOffset, int nameLength) {
+        if (nameLength != JarFile.MANIFEST_NAME.length()) {
+            return false;
+        }
+        byte[] name = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            name[i] = cen.get(nameOffset + i);
+        }
+        return JarFile.MANIFEST_NAME.equalsIgnoreCase(new String(name, StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+        }
+        return buf;
+    }
+
+    private static class ArchiveInfo {
+        private final long size;
+        private final long lastModified;
+        private final Attributes mainAttributes;
+
+        ArchiveInfo(long size, long lastModified, Attributes mainAttributes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mainAttributes = mainAttributes;
+        }
+
+        String getMainClass() {
+            return mainAttributes != null ? mainAttributes.getValue("Main-Class") : null;
+        }
+    }
+
     public class Result {
 
         private final File archiveFile;
@@ -20,9 +20,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import io.jshift.kit.common.Configs;
-import io.jshift.kit.common.util.MavenUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.kit.config.image.build.AssemblyConfiguration;
 import io.jshift.kit.config.image.build.BuildConfiguration;
@@ -30,6 +31,7 @@ import io.jshift.maven.generator.api.FromSelector;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.api.support.BaseGenerator;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.assembly.model.FileSet;
 import org.apache.maven.project.MavenProject;
@@ -49,7 +51,7 @@ import static io.jshift.kit.config.image.build.util.BuildLabelUtil.addSchemaLabe
 public class JavaExecGenerator extends BaseGenerator {
 
     // Environment variable used for specifying a main class
-    static final String JAVA_MAIN_CLASS_ENV_VAR = "JAVA_MAIN_CLASS";
+    protected static final String JAVA_MAIN_CLASS_ENV_VAR = "JAVA_MAIN_CLASS";
     private static final String JAVA_OPTIONS = "JAVA_OPTIONS";
 
     // Plugins indicating a plain java build
@@ -58,6 +60,13 @@ public class JavaExecGenerator extends BaseGenerator {
         new String[] { "org.apache.maven.plugins", "maven-shade-plugin" }
     };
 
+    // Layers used in layered mode for applications which are not packaged as fat jar
+    static final String LAYER_DEPENDENCIES = "dependencies";
+    static final String LAYER_PROJECT_DEPENDENCIES = "project-dependencies";
+    static final String LAYER_APPLICATION = "application";
+
+    private static final String FAT_JAR_FACT = "java-exec.fatJar";
+
     private final FatJarDetector fatJarDetector;
     private final MainClassDetector mainClassDetector;
 
@@ -70,6 +79,7 @@ public class JavaExecGenerator extends BaseGenerator {
         fatJarDetector = new FatJarDetector(getProject().getBuild().getDirectory());
         mainClassDetector = new MainClassDetector(getConfig(Config.mainClass),
                                                   new File(getProject().getBuild().getOutputDirectory()),
+                                                  new File(getProject().getBuild().getDirectory(), MainClassDetector.CACHE_FILE),
                                                   context.getLogger());
     }
 
@@ -91,7 +101,11 @@ public class JavaExecGenerator extends BaseGenerator {
         mainClass,
 
         // Reference to a predefined assembly descriptor to use. By defult it is tried to be detected
-        assemblyRef;
+        assemblyRef,
+
+        // Whether to add the application in several image layers, ordered from the least to the most
+        // frequently changing content, so that a code change only touches the last layer
+        layered {{ d = "false"; }};
 
         public String def() { return d; } protected String d;
     }
@@ -105,7 +119,7 @@ public class JavaExecGenerator extends BaseGenerator {
             }
             // Check for the existing of plugins indicating a plain java exec app
             for (String[] plugin : JAVA_EXEC_MAVEN_PLUGINS) {
-                if (MavenUtil.hasPlugin(getProject(), plugin[0], plugin[1])) {
+                if (getProjectFacts().hasPlugin(plugin[0], plugin[1])) {
                     return true;
                 }
             }
@@ -186,7 +200,7 @@ public class JavaExecGenerator extends BaseGenerator {
             builder.descriptorRef(assemblyRef);
         } else {
             Assembly assembly = new Assembly();
-            addAdditionalFiles(assembly);
+            addAdditionalFiles(assembly, "");
             if (isFatJar()) {
                 FatJarDetector.Result fatJar = detectFatJar();
                 MavenProject project = getProject();
@@ -198,6 +212,9 @@ public class JavaExecGenerator extends BaseGenerator {
                     FileSet fileSet = getOutputDirectoryFileSet(fatJar, project);
                     assembly.addFileSet(fileSet);
                 }
+            } else if (isLayered()) {
+                addLayeredAssembly(builder);
+                return;
             } else {
                 builder.descriptorRef("artifact-with-dependencies");
             }
@@ -205,9 +222,95 @@ public class JavaExecGenerator extends BaseGenerator {
         }
     }
 
-    private void addAdditionalFiles(Assembly assembly) {
-        assembly.addFileSet(createFileSet("src/main/jshift-includes/bin","bin","0755","0755"));
-        assembly.addFileSet(createFileSet("src/main/jshift-includes",".","0644","0755"));
+    protected boolean isLayered() {
+        return Boolean.parseBoolean(getConfig(Config.layered));
+    }
+
+    // Third party dependencies, dependencies on other modules of the project and finally the artifact itself,
+    // each in its own layer. Empty layers are left out since a COPY of a missing directory fails.
+    private void addLayeredAssembly(AssemblyConfiguration.Builder builder) {
+        MavenProject project = getProject();
+        String projectKey = project.getGroupId() + ":" + project.getArtifactId();
+        Set<String> projectDependencies = new TreeSet<>();
+        boolean hasThirdPartyDependencies = false;
+        for (Artifact artifact : project.getArtifacts()) {
+            if (!isRuntimeScope(artifact.getScope())) {
+                continue;
+            }
+            String key = artifact.getGroupId() + ":" + artifact.getArtifactId();
+            if (isProjectDependency(project, artifact)) {
+                projectDependencies.add(key);
+            } else {
+                hasThirdPartyDependencies = true;
+            }
+        }
+
+        Assembly assembly = new Assembly();
+        List<String> layers = new ArrayList<>();
+        if (hasThirdPartyDependencies) {
+            DependencySet dependencySet = createDependencySet(LAYER_DEPENDENCIES);
+            projectDependencies.forEach(dependencySet::addExclude);
+            assembly.addDependencySet(dependencySet);
+            layers.add(LAYER_DEPENDENCIES);
+        }
+        if (!projectDependencies.isEmpty()) {
+            DependencySet dependencySet = createDependencySet(LAYER_PROJECT_DEPENDENCIES);
+            projectDependencies.forEach(dependencySet::addInclude);
+            assembly.addDependencySet(dependencySet);
+            layers.add(LAYER_PROJECT_DEPENDENCIES);
+        }
+        // Same file names as in the "artifact-with-dependencies" assembly, including the optional classpath file
+        DependencySet artifactSet = createDependencySet(LAYER_APPLICATION);
+        artifactSet.setUseProjectArtifact(true);
+        artifactSet.addInclude(projectKey);
+        artifactSet.setOutputFileNameMapping(project.getBuild().getFinalName() + ".${artifact.extension}");
+        assembly.addDependencySet(artifactSet);
+        FileSet classpathFile = createFileSet(project.getBuild().getDirectory(), LAYER_APPLICATION, "0644", null);
+        classpathFile.addInclude("classpath");
+        assembly.addFileSet(classpathFile);
+        addAdditionalFiles(assembly, LAYER_APPLICATION + "/");
+        layers.add(LAYER_APPLICATION);
+
+        log.verbose("Adding %s in layers %s", projectKey, layers);
+        builder.assemblyDef(assembly);
+        builder.layers(layers);
+    }
+
+    private DependencySet createDependencySet(String layer) {
+        DependencySet dependencySet = new DependencySet();
+        dependencySet.setUseProjectArtifact(false);
+        dependencySet.setOutputDirectory(layer);
+        return dependencySet;
+    }
+
+    private boolean isRuntimeScope(String scope) {
+        return scope == null || Artifact.SCOPE_COMPILE.equals(scope) || Artifact.SCOPE_RUNTIME.equals(scope);
+    }
+
+    // Modules of the same reactor build or with the same group id are assumed to change together with the project
+    private boolean isProjectDependency(MavenProject project, Artifact artifact) {
+        Map<String, MavenProject> references = project.getProjectReferences();
+        if (references != null) {
+            for (MavenProject reference : references.values()) {
+                if (reference.getGroupId().equals(artifact.getGroupId()) &&
+                    reference.getArtifactId().equals(artifact.getArtifactId())) {
+                    return true;
+                }
+            }
+        }
+        return project.getGroupId().equals(artifact.getGroupId());
+    }
+
+    /**
+     * Add the extra files from <code>src/main/jshift-includes</code>
+     *
+     * @param assembly assembly to add the files to
+     * @param outputPrefix directory within the assembly where to put the files, e.g. a layer directory.
+     *                     Must be empty or end with a slash.
+     */
+    protected void addAdditionalFiles(Assembly assembly, String outputPrefix) {
+        assembly.addFileSet(createFileSet("src/main/jshift-includes/bin",outputPrefix + "bin","0755","0755"));
+        assembly.addFileSet(createFileSet("src/main/jshift-includes",outputPrefix + ".","0644","0755"));
     }
 
     private FileSet getOutputDirectoryFileSet(FatJarDetector.Result fatJar, MavenProject project) {
@@ -238,7 +341,8 @@ public class JavaExecGenerator extends BaseGenerator {
     }
 
     public FatJarDetector.Result detectFatJar() throws MojoExecutionException {
-        return fatJarDetector.scan();
+        // Shared between all generators of a project, since they look at the same build directory
+        return getContext().getFact(FAT_JAR_FACT, fatJarDetector::scan);
     }
 
     protected List<String> extractPorts() {
@@ -29,13 +29,22 @@ import org.apache.maven.plugin.MojoExecutionException;
  */
 class MainClassDetector {
 
+    // Cache file, relative to the build directory, for remembering which class files have a main method
+    static final String CACHE_FILE = "jshift/main-classes.cache";
+
     private String mainClass = null;
     private final File classesDir;
+    private final File cacheFile;
     private final KitLogger log;
 
     MainClassDetector(String mainClass, File classesDir, KitLogger log) {
+        this(mainClass, classesDir, null, log);
+    }
+
+    MainClassDetector(String mainClass, File classesDir, File cacheFile, KitLogger log) {
         this.mainClass = mainClass;
         this.classesDir = classesDir;
+        this.cacheFile = cacheFile;
         this.log = log;
     }
 
@@ -46,7 +55,7 @@ class MainClassDetector {
 
         // Try to detect a single main class from target/classes
         try {
-            List<String> foundMainClasses = ClassUtil.findMainClasses(classesDir);
+            List<String> foundMainClasses = ClassUtil.findMainClasses(classesDir, cacheFile);
             if (foundMainClasses.size() == 0) {
                 return mainClass = null;
             } else if (foundMainClasses.size() == 1) {
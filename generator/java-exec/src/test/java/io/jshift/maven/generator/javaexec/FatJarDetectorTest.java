@@ -15,15 +15,28 @@
  */
 package io.jshift.maven.generator.javaexec;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static io.jshift.kit.common.util.FileUtil.getAbsolutePath;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * @author roland
@@ -31,6 +44,9 @@ import static org.junit.Assert.assertNotNull;
  */
 public class FatJarDetectorTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void simple() throws MojoExecutionException {
         URL testDirUrl = getClass().getResource("/fatjar-simple");
@@ -41,4 +57,86 @@ public class FatJarDetectorTest {
         assertEquals("org.springframework.boot.loader.JarLauncher", result.getMainClass());
         assertEquals("Plexus Archiver", result.getManifestEntry("Archiver-Version"));
     }
+
+    @Test
+    public void largestArchiveWithMainClass() throws Exception {
+        File dir = folder.newFolder("target");
+        createJar(new File(dir, "small.jar"), "small.Main", ZipEntry.DEFLATED, 10, null);
+        File big = createJar(new File(dir, "big.jar"), "big.Main", ZipEntry.STORED, 1000, "some comment");
+        createJar(new File(dir, "no-main.jar"), null, ZipEntry.DEFLATED, 5000, null);
+        createJar(new File(dir, "no-manifest.jar"), null, -1, 5000, null);
+
+        FatJarDetector.Result result = new FatJarDetector(dir.getAbsolutePath()).scan();
+        assertEquals(big, result.getArchiveFile());
+        assertEquals("big.Main", result.getMainClass());
+        assertEquals("test", result.getManifestEntry("Created-By"));
+
+        // Changed archives are examined again
+        createJar(big, null, ZipEntry.DEFLATED, 1001, null);
+        result = new FatJarDetector(dir.getAbsolutePath()).scan();
+        assertEquals(new File(dir, "small.jar"), result.getArchiveFile());
+        assertEquals("small.Main", result.getMainClass());
+    }
+
+    @Test
+    public void noArchiveWithMainClass() throws Exception {
+        File dir = folder.newFolder("target");
+        createJar(new File(dir, "no-main.jar"), null, ZipEntry.DEFLATED, 10, null);
+        assertNull(new FatJarDetector(dir.getAbsolutePath()).scan());
+    }
+
+    @Test
+    public void cacheIsBounded() throws Exception {
+        FatJarDetector.clearCache();
+        File dir = folder.newFolder("target");
+        for (int i = 0; i <= FatJarDetector.MAX_CACHED_ARCHIVES; i++) {
+            createJar(new File(dir, "app-" + i + ".jar"), "app.Main" + i, ZipEntry.DEFLATED, 10, null);
+        }
+        assertNotNull(new FatJarDetector(dir.getAbsolutePath()).scan());
+        assertEquals(FatJarDetector.MAX_CACHED_ARCHIVES, FatJarDetector.getCacheSize());
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void brokenArchive() throws Exception {
+        File dir = folder.newFolder("target");
+        Files.write(new File(dir, "broken.jar").toPath(), "no zip".getBytes());
+        new FatJarDetector(dir.getAbsolutePath()).scan();
+    }
+
+    // A negative manifest method creates an archive without manifest
+    private File createJar(File file, String mainClass, int manifestMethod, int dataSize, String comment) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            if (manifestMethod >= 0) {
+                Manifest manifest = new Manifest();
+                manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+                manifest.getMainAttributes().putValue("Created-By", "test");
+                if (mainClass != null) {
+                    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+                }
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                manifest.write(content);
+                putEntry(out, JarFile.MANIFEST_NAME, content.toByteArray(), manifestMethod);
+            }
+            putEntry(out, "data.bin", new byte[dataSize], ZipEntry.STORED);
+            if (comment != null) {
+                out.setComment(comment);
+            }
+        }
+        return file;
+    }
+
+    private void putEntry(ZipOutputStream out, String name, byte[] content, int method) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
 }
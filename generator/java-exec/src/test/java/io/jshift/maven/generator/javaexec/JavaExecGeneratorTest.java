@@ -0,0 +1,135 @@
+package io.jshift.maven.generator.javaexec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import io.jshift.kit.config.image.build.AssemblyConfiguration;
+import io.jshift.maven.generator.api.GeneratorContext;
+import mockit.Deencapsulation;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.DependencySet;
+import org.apache.maven.plugins.assembly.model.FileSet;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JavaExecGeneratorTest {
+
+    @Mocked
+    private GeneratorContext context;
+
+    @Mocked
+    private MavenProject project;
+
+    @Mocked
+    private MavenProject reactorModule;
+
+    @Mocked
+    private Build build;
+
+    @Test
+    public void layeredAssembly() throws IOException, MojoExecutionException {
+        prepareProject(true,
+                       artifact("org.springframework", "spring-core", Artifact.SCOPE_COMPILE),
+                       artifact("junit", "junit", Artifact.SCOPE_TEST),
+                       artifact("org.example", "app-model", Artifact.SCOPE_COMPILE),
+                       artifact("com.acme", "reactor-lib", Artifact.SCOPE_RUNTIME));
+
+        AssemblyConfiguration config = new JavaExecGenerator(context).createAssembly();
+
+        assertEquals(Arrays.asList("dependencies", "project-dependencies", "application"), config.getLayers());
+        List<DependencySet> dependencySets = getAssembly(config).getDependencySets();
+        assertEquals(3, dependencySets.size());
+
+        DependencySet dependencies = dependencySets.get(0);
+        assertEquals("dependencies", dependencies.getOutputDirectory());
+        assertEquals(Arrays.asList("com.acme:reactor-lib", "org.example:app-model"), dependencies.getExcludes());
+
+        DependencySet projectDependencies = dependencySets.get(1);
+        assertEquals("project-dependencies", projectDependencies.getOutputDirectory());
+        assertEquals(Arrays.asList("com.acme:reactor-lib", "org.example:app-model"), projectDependencies.getIncludes());
+
+        DependencySet application = dependencySets.get(2);
+        assertEquals("application", application.getOutputDirectory());
+        assertTrue(application.isUseProjectArtifact());
+        assertEquals(Collections.singletonList("org.example:app"), application.getIncludes());
+        assertEquals("app-1.0.${artifact.extension}", application.getOutputFileNameMapping());
+
+        // The classpath file goes along with the artifact, like in the non layered assembly
+        FileSet classpath = getAssembly(config).getFileSets().get(0);
+        assertEquals(Collections.singletonList("classpath"), classpath.getIncludes());
+        assertEquals(build.getDirectory(), classpath.getDirectory());
+        assertEquals("application", classpath.getOutputDirectory());
+    }
+
+    @Test
+    public void layeredAssemblyWithoutDependencies() throws IOException, MojoExecutionException {
+        prepareProject(true, artifact("junit", "junit", Artifact.SCOPE_TEST));
+
+        AssemblyConfiguration config = new JavaExecGenerator(context).createAssembly();
+
+        assertEquals(Collections.singletonList("application"), config.getLayers());
+        assertEquals(1, getAssembly(config).getDependencySets().size());
+    }
+
+    @Test
+    public void notLayered() throws IOException, MojoExecutionException {
+        prepareProject(false, artifact("org.springframework", "spring-core", Artifact.SCOPE_COMPILE));
+
+        AssemblyConfiguration config = new JavaExecGenerator(context).createAssembly();
+
+        assertNull(config.getLayers());
+        assertEquals("artifact-with-dependencies", config.getDescriptorRef());
+    }
+
+    private Assembly getAssembly(AssemblyConfiguration config) {
+        return Deencapsulation.getField(config, "inline");
+    }
+
+    private void prepareProject(boolean layered, Artifact... artifacts) throws IOException {
+        final String tempDir = Files.createTempDirectory("java-exec-test-project").toFile().getAbsolutePath();
+        final Properties properties = new Properties();
+        properties.setProperty("jshift.generator.java-exec.mainClass", "org.example.Main");
+        properties.setProperty("jshift.generator.java-exec.layered", Boolean.toString(layered));
+        final Set<Artifact> artifactSet = new LinkedHashSet<>(Arrays.asList(artifacts));
+        final Map<String, MavenProject> references = new HashMap<>();
+        references.put("com.acme:reactor-lib:1.0", reactorModule);
+
+        new Expectations() {{
+            context.getProject(); result = project;
+            project.getBuild(); result = build;
+            build.getDirectory(); result = tempDir;
+            build.getOutputDirectory(); result = tempDir;
+            build.getFinalName(); result = "app-1.0"; minTimes = 0;
+            project.getProperties(); result = properties;
+            project.getGroupId(); result = "org.example"; minTimes = 0;
+            project.getArtifactId(); result = "app"; minTimes = 0;
+            project.getArtifacts(); result = artifactSet; minTimes = 0;
+            project.getProjectReferences(); result = references; minTimes = 0;
+            reactorModule.getGroupId(); result = "com.acme"; minTimes = 0;
+            reactorModule.getArtifactId(); result = "reactor-lib"; minTimes = 0;
+        }};
+    }
+
+    private Artifact artifact(String groupId, String artifactId, String scope) {
+        return new DefaultArtifact(groupId, artifactId, "1.0", scope, "jar", null, new DefaultArtifactHandler("jar"));
+    }
+}
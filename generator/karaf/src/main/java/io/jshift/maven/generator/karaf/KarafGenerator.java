@@ -15,11 +15,12 @@
  */
 package io.jshift.maven.generator.karaf;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import io.jshift.kit.common.Configs;
-import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.FileUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.kit.config.image.build.Arguments;
 import io.jshift.kit.config.image.build.AssemblyConfiguration;
@@ -28,6 +29,8 @@ import io.jshift.maven.generator.api.FromSelector;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.api.support.BaseGenerator;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
 
 import static io.jshift.kit.config.image.build.util.BuildLabelUtil.addSchemaLabels;
 
@@ -35,6 +38,15 @@ public class KarafGenerator extends BaseGenerator {
 
     private static final String KARAF_MAVEN_PLUGIN_ARTIFACT_ID = "karaf-maven-plugin";
 
+    // Layers used in layered mode, ordered from the least to the most frequently changing content.
+    // The first layer holds the Karaf runtime, the others the directory of the same name.
+    static final String LAYER_KARAF = "karaf";
+    static final String LAYER_SYSTEM = "system";
+    static final String LAYER_ETC = "etc";
+    static final String LAYER_DEPLOY = "deploy";
+
+    private static final String[] DIRECTORY_LAYERS = { LAYER_SYSTEM, LAYER_ETC, LAYER_DEPLOY };
+
     public KarafGenerator(GeneratorContext context) {
         super(context, "karaf", new FromSelector.Default(context,"karaf"));
     }
@@ -44,7 +56,11 @@ public class KarafGenerator extends BaseGenerator {
         user           {{ d = "jboss:jboss:jboss"; }},
         cmd            {{ d = "/deployments/deploy-and-run.sh"; }},
         webPort        {{ d = "8181"; }},
-        jolokiaPort    {{ d = "8778"; }};
+        jolokiaPort    {{ d = "8778"; }},
+
+        // Whether to add the Karaf runtime, the system repository, the configuration and the deploy directory
+        // in separate image layers, so that a change of the configuration or deployments only touches the last layers
+        layered        {{ d = "false"; }};
 
         public String def() { return d; } protected String d;
     }
@@ -72,7 +88,7 @@ public class KarafGenerator extends BaseGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs) &&
-               MavenUtil.hasPluginOfAnyGroupId(getProject(), KARAF_MAVEN_PLUGIN_ARTIFACT_ID);
+               getProjectFacts().hasPluginOfAnyGroupId(KARAF_MAVEN_PLUGIN_ARTIFACT_ID);
     }
 
     protected List<String> extractPorts() {
@@ -89,10 +105,67 @@ public class KarafGenerator extends BaseGenerator {
     }
 
     private AssemblyConfiguration createAssembly() {
-        return new AssemblyConfiguration.Builder()
+        AssemblyConfiguration.Builder builder = new AssemblyConfiguration.Builder()
             .targetDir(getConfig(Config.baseDir))
-            .user(getConfig(Config.user))
-            .descriptorRef("karaf")
-            .build();
+            .user(getConfig(Config.user));
+        if (Boolean.parseBoolean(getConfig(Config.layered))) {
+            addLayeredAssembly(builder);
+        } else {
+            builder.descriptorRef("karaf");
+        }
+        return builder.build();
+    }
+
+    // Same content as the "karaf" descriptor, split into layers. Empty layers are left out since
+    // a COPY of a missing directory fails.
+    private void addLayeredAssembly(AssemblyConfiguration.Builder builder) {
+        File karafDir = new File(getProject().getBuild().getDirectory(), "assembly");
+        String directory = FileUtil.getRelativePath(getProject().getBasedir(), karafDir).getPath();
+        String outputDirectory = getProject().getArtifactId() + "-" + getProject().getVersion();
+
+        Assembly assembly = new Assembly();
+        List<String> layers = new ArrayList<>();
+
+        FileSet runtime = createFileSet(directory, LAYER_KARAF + "/" + outputDirectory);
+        runtime.addExclude("bin/**");
+        for (String layer : DIRECTORY_LAYERS) {
+            runtime.addExclude(layer + "/**");
+        }
+        assembly.addFileSet(runtime);
+        // bin/* files are executable, except *.bat files
+        FileSet bin = createFileSet(directory + "/bin", LAYER_KARAF + "/" + outputDirectory + "/bin");
+        bin.setFileMode("0755");
+        bin.addExclude("*.bat");
+        bin.addExclude("contrib/**");
+        assembly.addFileSet(bin);
+        FileSet bat = createFileSet(directory + "/bin", LAYER_KARAF + "/" + outputDirectory + "/bin");
+        bat.setFileMode("0644");
+        bat.addInclude("*.bat");
+        bat.addInclude("contrib/**");
+        assembly.addFileSet(bat);
+        layers.add(LAYER_KARAF);
+
+        for (String layer : DIRECTORY_LAYERS) {
+            String[] content = new File(karafDir, layer).list();
+            if (content != null && content.length > 0) {
+                FileSet fileSet = createFileSet(directory, layer + "/" + outputDirectory);
+                fileSet.addInclude(layer + "/**");
+                assembly.addFileSet(fileSet);
+                layers.add(layer);
+            }
+        }
+
+        log.verbose("Adding Karaf assembly %s in layers %s", directory, layers);
+        builder.assemblyDef(assembly);
+        builder.layers(layers);
+    }
+
+    private FileSet createFileSet(String directory, String outputDirectory) {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(directory);
+        fileSet.setOutputDirectory(outputDirectory);
+        fileSet.setUseDefaultExcludes(false);
+        fileSet.setDirectoryMode("0775");
+        return fileSet;
     }
 }
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.jshift.maven.generator.karaf;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.config.image.ImageConfiguration;
+import io.jshift.kit.config.image.build.AssemblyConfiguration;
+import io.jshift.kit.config.resource.ProcessorConfig;
+import io.jshift.maven.generator.api.GeneratorContext;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class KarafGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void layeredAssembly() throws IOException, ReflectiveOperationException {
+        touch("target/assembly/bin/karaf");
+        touch("target/assembly/lib/karaf.jar");
+        touch("target/assembly/system/org/apache/felix/bundle.jar");
+        touch("target/assembly/etc/config.properties");
+        touch("target/assembly/deploy/app.kar");
+
+        AssemblyConfiguration assembly = createAssembly("true");
+
+        assertEquals("/deployments/", assembly.getTargetDir());
+        assertEquals("jboss:jboss:jboss", assembly.getUser());
+        assertNull(assembly.getDescriptorRef());
+        assertEquals(Arrays.asList("karaf", "system", "etc", "deploy"), assembly.getLayers());
+
+        String directory = "target" + File.separator + "assembly";
+        List<FileSet> fileSets = getInlineAssembly(assembly).getFileSets();
+        assertEquals(6, fileSets.size());
+        assertEquals(directory, fileSets.get(0).getDirectory());
+        assertEquals("karaf/demo-1.0", fileSets.get(0).getOutputDirectory());
+        assertEquals(Arrays.asList("bin/**", "system/**", "etc/**", "deploy/**"), fileSets.get(0).getExcludes());
+        assertEquals(directory + "/bin", fileSets.get(1).getDirectory());
+        assertEquals("karaf/demo-1.0/bin", fileSets.get(1).getOutputDirectory());
+        assertEquals("0755", fileSets.get(1).getFileMode());
+        assertEquals("karaf/demo-1.0/bin", fileSets.get(2).getOutputDirectory());
+        assertEquals("0644", fileSets.get(2).getFileMode());
+        assertEquals(Arrays.asList("*.bat", "contrib/**"), fileSets.get(2).getIncludes());
+        assertEquals("system/demo-1.0", fileSets.get(3).getOutputDirectory());
+        assertEquals(Collections.singletonList("system/**"), fileSets.get(3).getIncludes());
+        assertEquals("etc/demo-1.0", fileSets.get(4).getOutputDirectory());
+        assertEquals(Collections.singletonList("etc/**"), fileSets.get(4).getIncludes());
+        assertEquals("deploy/demo-1.0", fileSets.get(5).getOutputDirectory());
+        assertEquals(Collections.singletonList("deploy/**"), fileSets.get(5).getIncludes());
+    }
+
+    @Test
+    public void emptyLayersAreSkipped() throws IOException, ReflectiveOperationException {
+        touch("target/assembly/bin/karaf");
+        touch("target/assembly/system/org/apache/felix/bundle.jar");
+        new File(folder.getRoot(), "target/assembly/deploy").mkdirs();
+
+        AssemblyConfiguration assembly = createAssembly("true");
+
+        assertEquals(Arrays.asList("karaf", "system"), assembly.getLayers());
+        assertEquals(4, getInlineAssembly(assembly).getFileSets().size());
+    }
+
+    @Test
+    public void karafDescriptorByDefault() throws IOException {
+        touch("target/assembly/bin/karaf");
+        touch("target/assembly/system/org/apache/felix/bundle.jar");
+
+        AssemblyConfiguration assembly = createAssembly(null);
+
+        assertEquals("karaf", assembly.getDescriptorRef());
+        assertEquals("jboss:jboss:jboss", assembly.getUser());
+        assertNull(assembly.getLayers());
+    }
+
+    @Test
+    public void karafDescriptorWhenNotLayered() throws IOException {
+        touch("target/assembly/bin/karaf");
+
+        AssemblyConfiguration assembly = createAssembly("false");
+
+        assertEquals("karaf", assembly.getDescriptorRef());
+        assertNull(assembly.getLayers());
+    }
+
+    private AssemblyConfiguration createAssembly(String layered) {
+        Build build = new Build();
+        build.setDirectory(new File(folder.getRoot(), "target").getAbsolutePath());
+        build.setFinalName("demo");
+        Model model = new Model();
+        model.setGroupId("io.jshift");
+        model.setArtifactId("demo");
+        model.setVersion("1.0");
+        model.setBuild(build);
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(folder.getRoot(), "pom.xml"));
+
+        TreeMap<String, Object> karafConfig = new TreeMap<>();
+        karafConfig.put("from", "fabric8/s2i-karaf");
+        if (layered != null) {
+            karafConfig.put("layered", layered);
+        }
+        Map<String, TreeMap> config = Collections.singletonMap("karaf", karafConfig);
+        GeneratorContext context = new GeneratorContext.Builder()
+            .project(project)
+            .logger(new KitLogger.StdoutLogger())
+            .config(new ProcessorConfig(null, null, config))
+            .build();
+
+        List<ImageConfiguration> images = new KarafGenerator(context).customize(new ArrayList<>(), false);
+        assertEquals(1, images.size());
+        return images.get(0).getBuildConfiguration().getAssemblyConfiguration();
+    }
+
+    private Assembly getInlineAssembly(AssemblyConfiguration config) throws ReflectiveOperationException {
+        Field inline = AssemblyConfiguration.class.getDeclaredField("inline");
+        inline.setAccessible(true);
+        return (Assembly) inline.get(config);
+    }
+
+    private void touch(String path) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+    }
+}
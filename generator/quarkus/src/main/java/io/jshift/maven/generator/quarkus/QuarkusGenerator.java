@@ -17,7 +17,6 @@ package io.jshift.maven.generator.quarkus;
 
 import io.jshift.kit.common.Configs;
 import io.jshift.kit.common.util.FileUtil;
-import io.jshift.kit.common.util.MavenUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.kit.config.image.build.Arguments;
 import io.jshift.kit.config.image.build.AssemblyConfiguration;
@@ -29,6 +28,7 @@ import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.FileSet;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -38,6 +38,22 @@ import static java.rmi.registry.LocateRegistry.getRegistry;
 
 public class QuarkusGenerator extends BaseGenerator {
 
+    // Directory and launcher of the fast-jar packaging
+    private static final String FAST_JAR_DIR = "quarkus-app";
+    private static final String FAST_JAR_RUNNER = "quarkus-run.jar";
+
+    // Maven property selecting Quarkus' packaging
+    private static final String PACKAGE_TYPE_PROPERTY = "quarkus.package.type";
+
+    // Layers of the fast-jar packaging with their directories, ordered from the least to the most
+    // frequently changing content. The launcher goes into the last layer.
+    private static final String[][] FAST_JAR_LAYERS = new String[][] {
+        new String[] { "lib-boot", "lib/boot" },
+        new String[] { "lib-main", "lib/main" },
+        new String[] { "app", "app" },
+        new String[] { "quarkus", "quarkus" }
+    };
+
     public QuarkusGenerator(GeneratorContext context) {
         super(context, "quarkus");
     }
@@ -63,7 +79,7 @@ public class QuarkusGenerator extends BaseGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs)
-               && MavenUtil.hasPlugin(getProject(), "io.quarkus", "quarkus-maven-plugin");
+               && getProjectFacts().hasPlugin("io.quarkus", "quarkus-maven-plugin");
     }
 
     @Override
@@ -100,6 +116,19 @@ public class QuarkusGenerator extends BaseGenerator {
                     createAssemblyConfiguration(
                         "/", this::getNativeFileToInclude));
             }
+        } else if (isFastJar()) {
+            buildBuilder.from("openjdk:11")
+                        .entryPoint(new Arguments.Builder()
+                                        .withParam("java")
+                                        .withParam("-Dquarkus.http.host=0.0.0.0")
+                                        .withParam("-jar")
+                                        .withParam(FAST_JAR_RUNNER)
+                                        .build())
+                        .workdir("/opt");
+
+            if (!prePackagePhase) {
+                buildBuilder.assembly(createFastJarAssemblyConfiguration("/opt", getFastJarDir()));
+            }
         } else {
             buildBuilder.from("openjdk:11")
                         .entryPoint(new Arguments.Builder()
@@ -135,6 +164,46 @@ public class QuarkusGenerator extends BaseGenerator {
 
     }
 
+    // Each directory of the fast-jar gets its own layer, so that the dependencies are only
+    // copied again when they change. Empty layers are left out since a COPY of a missing directory fails.
+    private AssemblyConfiguration createFastJarAssemblyConfiguration(String targetDir, File fastJarDir) throws MojoExecutionException {
+        if (!new File(fastJarDir, FAST_JAR_RUNNER).isFile()) {
+            throw new MojoExecutionException("Can't find fast-jar launcher " + FAST_JAR_RUNNER + " in " + fastJarDir);
+        }
+        String directory = FileUtil.getRelativePath(getProject().getBasedir(), fastJarDir).getPath();
+        Assembly assembly = new Assembly();
+        List<String> layers = new ArrayList<>();
+        for (int i = 0; i < FAST_JAR_LAYERS.length; i++) {
+            String layer = FAST_JAR_LAYERS[i][0];
+            String layerDir = FAST_JAR_LAYERS[i][1];
+            FileSet fileSet = new FileSet();
+            fileSet.setDirectory(directory);
+            fileSet.setOutputDirectory(layer);
+            fileSet.setFileMode("0640");
+            if (hasContent(new File(fastJarDir, layerDir))) {
+                fileSet.addInclude(layerDir + "/**");
+            }
+            if (i == FAST_JAR_LAYERS.length - 1) {
+                fileSet.addInclude(FAST_JAR_RUNNER);
+            }
+            if (!fileSet.getIncludes().isEmpty()) {
+                assembly.addFileSet(fileSet);
+                layers.add(layer);
+            }
+        }
+        log.verbose("Adding %s in layers %s", directory, layers);
+        return new AssemblyConfiguration.Builder()
+            .targetDir(targetDir)
+            .assemblyDef(assembly)
+            .layers(layers)
+            .build();
+    }
+
+    private boolean hasContent(File dir) {
+        String[] children = dir.list();
+        return children != null && children.length > 0;
+    }
+
     private FileSet getJvmFilesToInclude() throws MojoExecutionException {
         FileSet fileSet = getFileSetWithFileFromBuildThatEndsWith("-runner.jar");
         fileSet.addInclude("lib/**");
@@ -165,6 +234,28 @@ public class QuarkusGenerator extends BaseGenerator {
         return file[0];
     }
 
+    // Whether the application is packaged as fast-jar. This must be decided the same way before
+    // and after packaging, so that the resource and build goals agree on the entrypoint. An explicit
+    // package type wins, then the build output. Without any, fast-jar is Quarkus' default packaging.
+    private boolean isFastJar() {
+        String packageType = getProject().getProperties().getProperty(PACKAGE_TYPE_PROPERTY);
+        if ("fast-jar".equals(packageType) || "mutable-jar".equals(packageType)) {
+            return true;
+        }
+        if ("legacy-jar".equals(packageType) || "uber-jar".equals(packageType)) {
+            return false;
+        }
+        if (new File(getFastJarDir(), FAST_JAR_RUNNER).isFile()) {
+            return true;
+        }
+        String[] runnerJars = getBuildDir().list((dir, name) -> name.endsWith("-runner.jar"));
+        return runnerJars == null || runnerJars.length == 0;
+    }
+
+    private File getFastJarDir() {
+        return new File(getBuildDir(), FAST_JAR_DIR);
+    }
+
     private File getBuildDir() {
         return new File(getProject().getBuild().getDirectory());
     }
@@ -0,0 +1,175 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.jshift.maven.generator.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.config.image.ImageConfiguration;
+import io.jshift.kit.config.image.build.AssemblyConfiguration;
+import io.jshift.kit.config.image.build.BuildConfiguration;
+import io.jshift.kit.config.resource.ProcessorConfig;
+import io.jshift.maven.generator.api.GeneratorContext;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class QuarkusGeneratorTest {
+
+    private static final List<String> FAST_JAR_ENTRYPOINT =
+        Arrays.asList("java", "-Dquarkus.http.host=0.0.0.0", "-jar", "quarkus-run.jar");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MavenProject project;
+
+    @Test
+    public void fastJarInLayers() throws IOException, MojoExecutionException, ReflectiveOperationException {
+        touch("target/quarkus-app/quarkus-run.jar");
+        touch("target/quarkus-app/lib/boot/quarkus-bootstrap-runner.jar");
+        touch("target/quarkus-app/lib/main/quarkus-core.jar");
+        touch("target/quarkus-app/app/demo-1.0.jar");
+        touch("target/quarkus-app/quarkus/generated-bytecode.jar");
+
+        BuildConfiguration buildConfig = createBuildConfig(false);
+
+        assertEquals(FAST_JAR_ENTRYPOINT, buildConfig.getEntryPoint().getExec());
+        assertEquals("/opt", buildConfig.getWorkdir());
+        AssemblyConfiguration assembly = buildConfig.getAssemblyConfiguration();
+        assertEquals("/opt", assembly.getTargetDir());
+        assertEquals(Arrays.asList("lib-boot", "lib-main", "app", "quarkus"), assembly.getLayers());
+
+        List<FileSet> fileSets = getInlineAssembly(assembly).getFileSets();
+        assertEquals(4, fileSets.size());
+        String directory = "target" + File.separator + "quarkus-app";
+        for (FileSet fileSet : fileSets) {
+            assertEquals(directory, fileSet.getDirectory());
+        }
+        assertEquals("lib-boot", fileSets.get(0).getOutputDirectory());
+        assertEquals(Collections.singletonList("lib/boot/**"), fileSets.get(0).getIncludes());
+        assertEquals("lib-main", fileSets.get(1).getOutputDirectory());
+        assertEquals(Collections.singletonList("lib/main/**"), fileSets.get(1).getIncludes());
+        assertEquals("app", fileSets.get(2).getOutputDirectory());
+        assertEquals(Collections.singletonList("app/**"), fileSets.get(2).getIncludes());
+        // The launcher changes with the application, so it goes into the last layer
+        assertEquals("quarkus", fileSets.get(3).getOutputDirectory());
+        assertEquals(Arrays.asList("quarkus/**", "quarkus-run.jar"), fileSets.get(3).getIncludes());
+    }
+
+    @Test
+    public void emptyFastJarLayersAreSkipped() throws IOException, MojoExecutionException, ReflectiveOperationException {
+        touch("target/quarkus-app/quarkus-run.jar");
+        touch("target/quarkus-app/lib/boot/quarkus-bootstrap-runner.jar");
+        touch("target/quarkus-app/app/demo-1.0.jar");
+        new File(folder.getRoot(), "target/quarkus-app/lib/main").mkdirs();
+
+        AssemblyConfiguration assembly = createBuildConfig(false).getAssemblyConfiguration();
+
+        assertEquals(Arrays.asList("lib-boot", "app", "quarkus"), assembly.getLayers());
+        List<FileSet> fileSets = getInlineAssembly(assembly).getFileSets();
+        assertEquals(3, fileSets.size());
+        assertEquals(Collections.singletonList("quarkus-run.jar"), fileSets.get(2).getIncludes());
+    }
+
+    @Test
+    public void fastJarEntrypointBeforePackaging() throws MojoExecutionException {
+        new File(folder.getRoot(), "target").mkdirs();
+
+        BuildConfiguration buildConfig = createBuildConfig(true);
+
+        assertEquals(FAST_JAR_ENTRYPOINT, buildConfig.getEntryPoint().getExec());
+        assertNull(buildConfig.getAssemblyConfiguration());
+    }
+
+    @Test
+    public void runnerJarWithoutFastJar() throws IOException, MojoExecutionException {
+        touch("target/demo-1.0-runner.jar");
+        touch("target/lib/quarkus-core.jar");
+
+        BuildConfiguration buildConfig = createBuildConfig(false);
+
+        assertEquals(Arrays.asList("java", "-Dquarkus.http.host=0.0.0.0", "-jar", "demo-1.0-runner.jar"),
+                     buildConfig.getEntryPoint().getExec());
+        assertNull(buildConfig.getAssemblyConfiguration().getLayers());
+    }
+
+    @Test
+    public void packageTypeSelectsEntrypointBeforePackaging() throws IOException, MojoExecutionException {
+        touch("target/quarkus-app/quarkus-run.jar");
+        touch("target/demo-1.0-runner.jar");
+
+        assertEquals(FAST_JAR_ENTRYPOINT, createBuildConfig(true).getEntryPoint().getExec());
+
+        project.getProperties().setProperty("quarkus.package.type", "legacy-jar");
+        assertEquals("demo-1.0-runner.jar", createBuildConfig(true).getEntryPoint().getExec().get(3));
+    }
+
+    private BuildConfiguration createBuildConfig(boolean prePackagePhase) throws MojoExecutionException {
+        if (project == null) {
+            Build build = new Build();
+            build.setDirectory(new File(folder.getRoot(), "target").getAbsolutePath());
+            build.setFinalName("demo-1.0");
+            Model model = new Model();
+            model.setGroupId("io.jshift");
+            model.setArtifactId("demo");
+            model.setVersion("1.0");
+            model.setBuild(build);
+            project = new MavenProject(model);
+            project.setFile(new File(folder.getRoot(), "pom.xml"));
+        }
+
+        Map<String, TreeMap> config = Collections.singletonMap("quarkus", new TreeMap<>());
+        GeneratorContext context = new GeneratorContext.Builder()
+            .project(project)
+            .logger(new KitLogger.StdoutLogger())
+            .config(new ProcessorConfig(null, null, config))
+            .build();
+
+        List<ImageConfiguration> images = new QuarkusGenerator(context).customize(new ArrayList<>(), prePackagePhase);
+        assertEquals(1, images.size());
+        return images.get(0).getBuildConfiguration();
+    }
+
+    private Assembly getInlineAssembly(AssemblyConfiguration config) throws ReflectiveOperationException {
+        Field inline = AssemblyConfiguration.class.getDeclaredField("inline");
+        inline.setAccessible(true);
+        return (Assembly) inline.get(config);
+    }
+
+    private void touch(String path) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+    }
+}
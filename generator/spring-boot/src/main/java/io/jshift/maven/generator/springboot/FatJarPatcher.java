@@ -0,0 +1,351 @@
+package io.jshift.maven.generator.springboot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Adds files to an existing fat jar, replacing entries with the same path.
+ * <p>
+ * The entries which are kept are copied over with their compressed bytes as they are,
+ * so nothing is inflated or deflated again. The added files are appended as
+ * <code>STORED</code> entries, which is what Spring Boot requires for nested jars anyway.
+ * Archives which can't be handled this way (zip64) are rewritten entry by entry.
+ */
+class FatJarPatcher {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_HEADER_LENGTH = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_HEADER_LENGTH = 30;
+
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final long ZIP64_MAGIC_SIZE = 0xFFFFFFFFL;
+
+    private static final int VERSION = 20;
+    private static final int VERSION_STORED = 10;
+    private static final int FLAG_UTF8 = 0x800;
+
+    private FatJarPatcher() { }
+
+    /**
+     * Add files to a fat jar
+     *
+     * @param jar the jar to patch, which is replaced atomically when done
+     * @param entries files to add, keyed by their path within the jar. Existing entries with the same
+     *                path are removed.
+     * @throws IOException if the jar can't be read or written
+     */
+    static void patch(File jar, Map<String, File> entries) throws IOException {
+        File tmp = File.createTempFile(jar.getName(), ".tmp", jar.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel in = FileChannel.open(jar.toPath(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                copyRaw(in, out, entries);
+            } catch (ZipException e) {
+                rewrite(jar, tmp, entries);
+            }
+            Files.move(tmp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    // =============================================================================================
+
+    private static void copyRaw(FileChannel in, FileChannel out, Map<String, File> entries) throws IOException {
+        long fileSize = in.size();
+        int tailLength = (int) Math.min(fileSize, EOCD_LENGTH + MAX_COMMENT_LENGTH);
+        ByteBuffer tail = read(in, fileSize - tailLength, tailLength);
+        int eocd = -1;
+        for (int i = tailLength - EOCD_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("No end of central directory found");
+        }
+        int entryCount = tail.getShort(eocd + 10) & 0xFFFF;
+        long cenSize = tail.getInt(eocd + 12) & 0xFFFFFFFFL;
+        long cenOffset = tail.getInt(eocd + 16) & 0xFFFFFFFFL;
+        int commentLength = tail.getShort(eocd + 20) & 0xFFFF;
+        if (entryCount == ZIP64_MAGIC_COUNT || cenSize == ZIP64_MAGIC_SIZE || cenOffset == ZIP64_MAGIC_SIZE) {
+            throw new ZipException("zip64 archives are not supported");
+        }
+        // Bytes before the archive itself, e.g. a launch script for fully executable jars
+        long eocdPosition = fileSize - tailLength + eocd;
+        long prefix = eocdPosition - cenSize - cenOffset;
+        if (prefix < 0) {
+            throw new ZipException("Invalid central directory offset");
+        }
+
+        List<CenEntry> kept = new ArrayList<>();
+        long minLocalOffset = cenOffset;
+        ByteBuffer cen = read(in, prefix + cenOffset, (int) cenSize);
+        int pos = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (pos + CEN_HEADER_LENGTH > cenSize || cen.getInt(pos) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory entry");
+            }
+            int nameLength = cen.getShort(pos + 28) & 0xFFFF;
+            int length = CEN_HEADER_LENGTH + nameLength + (cen.getShort(pos + 30) & 0xFFFF) + (cen.getShort(pos + 32) & 0xFFFF);
+            long localOffset = cen.getInt(pos + 42) & 0xFFFFFFFFL;
+            if (localOffset == ZIP64_MAGIC_SIZE) {
+                throw new ZipException("zip64 archives are not supported");
+            }
+            minLocalOffset = Math.min(minLocalOffset, localOffset);
+            byte[] name = new byte[nameLength];
+            copyBytes(cen, pos + CEN_HEADER_LENGTH, name);
+            if (!entries.containsKey(new String(name, StandardCharsets.UTF_8))) {
+                byte[] header = new byte[length];
+                copyBytes(cen, pos, header);
+                kept.add(new CenEntry(header, localOffset));
+            }
+            pos += length;
+        }
+
+        // Preamble (e.g. launch script) is kept as it is
+        transfer(in, 0, prefix + minLocalOffset, out);
+
+        // Local records are copied including their compressed data and an optional data descriptor,
+        // which all lies between the start of the record and the start of the next one
+        List<CenEntry> byOffset = new ArrayList<>(kept);
+        byOffset.sort(Comparator.comparingLong(e -> e.localOffset));
+        List<Long> allOffsets = collectLocalOffsets(cen, entryCount);
+        for (CenEntry entry : byOffset) {
+            long end = nextOffset(allOffsets, entry.localOffset, cenOffset);
+            entry.newLocalOffset = out.position() - prefix;
+            transfer(in, prefix + entry.localOffset, end - entry.localOffset, out);
+        }
+
+        List<byte[]> newCenHeaders = new ArrayList<>();
+        for (CenEntry entry : kept) {
+            ByteBuffer header = ByteBuffer.wrap(entry.header).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(42, (int) entry.newLocalOffset);
+            newCenHeaders.add(entry.header);
+        }
+        for (Map.Entry<String, File> entry : entries.entrySet()) {
+            newCenHeaders.add(appendStored(out, entry.getKey(), entry.getValue(), out.position() - prefix));
+        }
+        if (newCenHeaders.size() >= ZIP64_MAGIC_COUNT) {
+            throw new ZipException("Too many entries for a non zip64 archive");
+        }
+
+        long newCenOffset = out.position() - prefix;
+        long newCenSize = 0;
+        for (byte[] header : newCenHeaders) {
+            write(out, ByteBuffer.wrap(header));
+            newCenSize += header.length;
+        }
+        if (newCenOffset + newCenSize >= ZIP64_MAGIC_SIZE) {
+            throw new ZipException("Archive too large for a non zip64 archive");
+        }
+
+        ByteBuffer newEocd = ByteBuffer.allocate(EOCD_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        newEocd.putInt(EOCD_SIGNATURE)
+               .putShort((short) 0)
+               .putShort((short) 0)
+               .putShort((short) newCenHeaders.size())
+               .putShort((short) newCenHeaders.size())
+               .putInt((int) newCenSize)
+               .putInt((int) newCenOffset)
+               .putShort((short) commentLength);
+        ((Buffer) newEocd).flip();
+        write(out, newEocd);
+        transfer(in, eocdPosition + EOCD_LENGTH, commentLength, out);
+    }
+
+    private static List<Long> collectLocalOffsets(ByteBuffer cen, int entryCount) {
+        List<Long> offsets = new ArrayList<>(entryCount);
+        int pos = 0;
+        for (int i = 0; i < entryCount; i++) {
+            offsets.add(cen.getInt(pos + 42) & 0xFFFFFFFFL);
+            pos += CEN_HEADER_LENGTH + (cen.getShort(pos + 28) & 0xFFFF) +
+                   (cen.getShort(pos + 30) & 0xFFFF) + (cen.getShort(pos + 32) & 0xFFFF);
+        }
+        offsets.sort(null);
+        return offsets;
+    }
+
+    private static long nextOffset(List<Long> sortedOffsets, long offset, long cenOffset) {
+        int idx = Collections.binarySearch(sortedOffsets, offset);
+        return idx + 1 < sortedOffsets.size() ? sortedOffsets.get(idx + 1) : cenOffset;
+    }
+
+    // Append a local record for the given file and return the matching central directory header
+    private static byte[] appendStored(FileChannel out, String path, File file, long localOffset) throws IOException {
+        long size = file.length();
+        if (size >= ZIP64_MAGIC_SIZE) {
+            throw new ZipException("File " + file + " is too large for a non zip64 archive");
+        }
+        long crc = crc32(file);
+        int dosTime = toDosTime(file.lastModified());
+        byte[] name = path.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer loc = ByteBuffer.allocate(LOC_HEADER_LENGTH + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        loc.putInt(LOC_SIGNATURE)
+           .putShort((short) VERSION_STORED)
+           .putShort((short) FLAG_UTF8)
+           .putShort((short) ZipEntry.STORED)
+           .putInt(dosTime)
+           .putInt((int) crc)
+           .putInt((int) size)
+           .putInt((int) size)
+           .putShort((short) name.length)
+           .putShort((short) 0)
+           .put(name);
+        // Cast keeps the code runnable on Java 8, where ByteBuffer doesn't override flip()
+        ((Buffer) loc).flip();
+        write(out, loc);
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transfer(in, 0, size, out);
+        }
+
+        ByteBuffer cen = ByteBuffer.allocate(CEN_HEADER_LENGTH + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        cen.putInt(CEN_SIGNATURE)
+           .putShort((short) VERSION)
+           .putShort((short) VERSION_STORED)
+           .putShort((short) FLAG_UTF8)
+           .putShort((short) ZipEntry.STORED)
+           .putInt(dosTime)
+           .putInt((int) crc)
+           .putInt((int) size)
+           .putInt((int) size)
+           .putShort((short) name.length)
+           .putShort((short) 0)
+           .putShort((short) 0)
+           .putShort((short) 0)
+           .putShort((short) 0)
+           .putInt(0)
+           .putInt((int) localOffset)
+           .put(name);
+        return cen.array();
+    }
+
+    // Fallback for archives which can't be copied raw. Every entry is inflated and deflated again.
+    private static void rewrite(File jar, File target, Map<String, File> entries) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (ZipInputStream zin = new ZipInputStream(new FileInputStream(jar));
+             ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target))) {
+            for (ZipEntry ze = zin.getNextEntry(); ze != null; ze = zin.getNextEntry()) {
+                if (entries.containsKey(ze.getName())) {
+                    continue;
+                }
+                out.putNextEntry(ze);
+                for (int read = zin.read(buffer); read > -1; read = zin.read(buffer)) {
+                    out.write(buffer, 0, read);
+                }
+                out.closeEntry();
+            }
+            for (Map.Entry<String, File> entry : entries.entrySet()) {
+                File file = entry.getValue();
+                ZipEntry ze = new ZipEntry(entry.getKey());
+                ze.setMethod(ZipEntry.STORED);
+                ze.setSize(file.length());
+                ze.setCompressedSize(file.length());
+                ze.setCrc(crc32(file));
+                ze.setTime(file.lastModified());
+                out.putNextEntry(ze);
+                try (InputStream in = new FileInputStream(file)) {
+                    for (int read = in.read(buffer); read > -1; read = in.read(buffer)) {
+                        out.write(buffer, 0, read);
+                    }
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static long crc32(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(file)) {
+            for (int read = in.read(buffer); read > -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static int toDosTime(long time) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(time);
+        int year = cal.get(Calendar.YEAR);
+        if (year < 1980) {
+            // 1980-01-01 00:00:00, the earliest DOS time
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | (cal.get(Calendar.MONTH) + 1) << 21 | cal.get(Calendar.DAY_OF_MONTH) << 16 |
+               cal.get(Calendar.HOUR_OF_DAY) << 11 | cal.get(Calendar.MINUTE) << 5 | cal.get(Calendar.SECOND) >> 1;
+    }
+
+    private static void copyBytes(ByteBuffer buf, int offset, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = buf.get(offset + i);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new ZipException("Unexpected end of archive");
+            }
+        }
+        return buf;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    private static void transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long transferred = in.transferTo(position + done, count - done, out);
+            if (transferred <= 0) {
+                throw new ZipException("Unexpected end of archive");
+            }
+            done += transferred;
+        }
+    }
+
+    private static class CenEntry {
+        private final byte[] header;
+        private final long localOffset;
+        private long newLocalOffset;
+
+        CenEntry(byte[] header, long localOffset) {
+            this.header = header;
+            this.localOffset = localOffset;
+        }
+    }
+}
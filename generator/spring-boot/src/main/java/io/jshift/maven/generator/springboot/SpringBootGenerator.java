@@ -16,21 +16,15 @@
 package io.jshift.maven.generator.springboot;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
-import java.util.zip.CRC32;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 import com.google.common.base.Strings;
 import io.jshift.kit.common.Configs;
@@ -38,16 +32,19 @@ import io.jshift.kit.common.util.MavenUtil;
 import io.jshift.kit.common.util.SpringBootConfigurationHelper;
 import io.jshift.kit.common.util.SpringBootUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
+import io.jshift.kit.config.image.build.AssemblyConfiguration;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.api.GeneratorMode;
 import io.jshift.maven.generator.javaexec.FatJarDetector;
 import io.jshift.maven.generator.javaexec.JavaExecGenerator;
-import org.apache.commons.io.FileUtils;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
 import org.apache.maven.project.MavenProject;
 
+import static io.jshift.kit.common.util.FileUtil.getRelativePath;
 import static io.jshift.kit.common.util.SpringBootConfigurationHelper.DEV_TOOLS_REMOTE_SECRET;
 import static io.jshift.maven.generator.springboot.SpringBootGenerator.Config.color;
 
@@ -59,8 +56,18 @@ public class SpringBootGenerator extends JavaExecGenerator {
 
     private static final String DEFAULT_SERVER_PORT = "8080";
 
+    // Launcher used for starting an exploded fat jar when no Main-Class is available yet
+    private static final String DEFAULT_LAUNCHER = "org.springframework.boot.loader.JarLauncher";
+    private static final String JAVA_CLASSPATH_ENV_VAR = "JAVA_CLASSPATH";
+
+    // Directory within the build directory where the fat jar is split into layers
+    private static final String LAYERS_DIR = "jshift/spring-boot-layers";
+
     public enum Config implements Configs.Key {
-        color {{ d = ""; }};
+        color {{ d = ""; }},
+
+        // Spring profile whose configuration is used for looking up e.g. the server port
+        activeProfile;
 
         public String def() { return d; } protected String d;
     }
@@ -72,7 +79,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs)
-               && MavenUtil.hasPluginOfAnyGroupId(getProject(), SpringBootConfigurationHelper.SPRING_BOOT_MAVEN_PLUGIN_ARTIFACT_ID);
+               && getProjectFacts().hasPluginOfAnyGroupId(SpringBootConfigurationHelper.SPRING_BOOT_MAVEN_PLUGIN_ARTIFACT_ID);
     }
 
     @Override
@@ -89,9 +96,15 @@ public class SpringBootGenerator extends JavaExecGenerator {
     @Override
     protected Map<String, String> getEnv(boolean prePackagePhase) throws MojoExecutionException {
         Map<String, String> res = super.getEnv(prePackagePhase);
+        if (isLayered() && isFatJar()) {
+            // The exploded fat jar is started with its launcher from the target directory
+            FatJarDetector.Result fatJar = detectFatJar();
+            res.put(JAVA_MAIN_CLASS_ENV_VAR, fatJar != null ? fatJar.getMainClass() : DEFAULT_LAUNCHER);
+            res.put(JAVA_CLASSPATH_ENV_VAR, getConfig(JavaExecGenerator.Config.targetDir));
+        }
         if (getContext().getGeneratorMode() == GeneratorMode.WATCH) {
             // adding dev tools token to env variables to prevent override during recompile
-            String secret = SpringBootUtil.getSpringBootApplicationProperties(MavenUtil.getCompileClassLoader(getProject())).getProperty(DEV_TOOLS_REMOTE_SECRET);
+            String secret = getSpringBootApplicationProperties().getProperty(DEV_TOOLS_REMOTE_SECRET);
             if (secret != null) {
                 res.put(SpringBootConfigurationHelper.DEV_TOOLS_REMOTE_SECRET_ENV, secret);
             }
@@ -117,11 +130,42 @@ public class SpringBootGenerator extends JavaExecGenerator {
         return super.isFatJar();
     }
 
+    @Override
+    protected void addAssembly(AssemblyConfiguration.Builder builder) throws MojoExecutionException {
+        if (!isLayered() || getConfig(JavaExecGenerator.Config.assemblyRef) != null || !isFatJar()) {
+            super.addAssembly(builder);
+            return;
+        }
+        MavenProject project = getProject();
+        File fatJar = getFatJarFile();
+        File layersDir = new File(project.getBuild().getDirectory(), LAYERS_DIR);
+        List<String> layers;
+        try {
+            layers = SpringBootLayers.extract(fatJar, layersDir);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot split fat jar " + fatJar + " into layers: " + e, e);
+        }
+        log.verbose("Adding fat jar %s in layers %s", fatJar.getName(), layers);
+
+        Assembly assembly = new Assembly();
+        for (String layer : layers) {
+            FileSet fileSet = new FileSet();
+            fileSet.setDirectory(getRelativePath(project.getBasedir(), new File(layersDir, layer)).getPath());
+            fileSet.setOutputDirectory(layer);
+            fileSet.setFileMode("0640");
+            assembly.addFileSet(fileSet);
+        }
+        // Extra files change as often as the application
+        addAdditionalFiles(assembly, SpringBootLayers.APPLICATION + "/");
+        builder.assemblyDef(assembly);
+        builder.layers(layers);
+    }
+
     @Override
     protected List<String> extractPorts() {
         List<String> answer = new ArrayList<>();
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(MavenUtil.getCompileClassLoader(this.getProject()));
-        SpringBootConfigurationHelper propertyHelper = new SpringBootConfigurationHelper(SpringBootUtil.getSpringBootVersion(getProject()));
+        Properties properties = getSpringBootApplicationProperties();
+        SpringBootConfigurationHelper propertyHelper = new SpringBootConfigurationHelper(SpringBootUtil.getSpringBootVersion(getProjectFacts()));
         String port = properties.getProperty(propertyHelper.getServerPortPropertyKey(), DEFAULT_SERVER_PORT);
         addPortIfValid(answer, getConfig(JavaExecGenerator.Config.webPort, port));
         addPortIfValid(answer, getConfig(JavaExecGenerator.Config.jolokiaPort));
@@ -131,8 +175,13 @@ public class SpringBootGenerator extends JavaExecGenerator {
 
     // =============================================================================
 
+    private Properties getSpringBootApplicationProperties() {
+        return SpringBootUtil.getSpringBootApplicationProperties(getConfig(Config.activeProfile),
+                                                                 MavenUtil.getCompileClassLoader(getProject()));
+    }
+
     private void ensureSpringDevToolSecretToken() throws MojoExecutionException {
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(MavenUtil.getCompileClassLoader(getProject()));
+        Properties properties = getSpringBootApplicationProperties();
         String remoteSecret = properties.getProperty(DEV_TOOLS_REMOTE_SECRET);
         if (Strings.isNullOrEmpty(remoteSecret)) {
             addSecretTokenToApplicationProperties();
@@ -162,58 +211,14 @@ public class SpringBootGenerator extends JavaExecGenerator {
     }
 
     private void copyFilesToFatJar(List<File> libs, List<File> classes, File target) throws IOException {
-        File tmpZip = File.createTempFile(target.getName(), null);
-        tmpZip.delete();
-
-        // Using Apache commons rename, because renameTo has issues across file systems
-        FileUtils.moveFile(target, tmpZip);
-
-        byte[] buffer = new byte[8192];
-        ZipInputStream zin = new ZipInputStream(new FileInputStream(tmpZip));
-        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target));
-        for (ZipEntry ze = zin.getNextEntry(); ze != null; ze = zin.getNextEntry()) {
-            if (matchesFatJarEntry(libs, ze.getName(), true) || matchesFatJarEntry(classes, ze.getName(), false)) {
-                continue;
-            }
-            out.putNextEntry(ze);
-            for(int read = zin.read(buffer); read > -1; read = zin.read(buffer)){
-                out.write(buffer, 0, read);
-            }
-            out.closeEntry();
-        }
-
+        Map<String, File> entries = new LinkedHashMap<>();
         for (File lib : libs) {
-            try (InputStream in = new FileInputStream(lib)) {
-                out.putNextEntry(createZipEntry(lib, getFatJarFullPath(lib, true)));
-                for (int read = in.read(buffer); read > -1; read = in.read(buffer)) {
-                    out.write(buffer, 0, read);
-                }
-                out.closeEntry();
-            }
+            entries.put(getFatJarFullPath(lib, true), lib);
         }
-
         for (File cls : classes) {
-            try (InputStream in = new FileInputStream(cls)) {
-                out.putNextEntry(createZipEntry(cls, getFatJarFullPath(cls, false)));
-                for (int read = in.read(buffer); read > -1; read = in.read(buffer)) {
-                    out.write(buffer, 0, read);
-                }
-                out.closeEntry();
-            }
+            entries.put(getFatJarFullPath(cls, false), cls);
         }
-
-        out.close();
-        tmpZip.delete();
-    }
-
-    private boolean matchesFatJarEntry(List<File> fatJarEntries, String path, boolean lib) {
-        for (File e : fatJarEntries) {
-            String fullPath = getFatJarFullPath(e, lib);
-            if (fullPath.equals(path)) {
-                return true;
-            }
-        }
-        return false;
+        FatJarPatcher.patch(target, entries);
     }
 
     private String getFatJarFullPath(File file, boolean lib) {
@@ -223,26 +228,6 @@ public class SpringBootGenerator extends JavaExecGenerator {
         return "BOOT-INF/classes/" + file.getName();
     }
 
-    private ZipEntry createZipEntry(File file, String fullPath) throws IOException {
-        ZipEntry entry = new ZipEntry(fullPath);
-
-        byte[] buffer = new byte[8192];
-        int bytesRead = -1;
-        try (InputStream is = new FileInputStream(file)) {
-            CRC32 crc = new CRC32();
-            int size = 0;
-            while ((bytesRead = is.read(buffer)) != -1) {
-                crc.update(buffer, 0, bytesRead);
-                size += bytesRead;
-            }
-            entry.setSize(size);
-            entry.setCompressedSize(size);
-            entry.setCrc(crc.getValue());
-            entry.setMethod(ZipEntry.STORED);
-            return entry;
-        }
-    }
-
     private void addSecretTokenToApplicationProperties() throws MojoExecutionException {
         String newToken = UUID.randomUUID().toString();
         log.verbose("Generating the spring devtools token in property: " + DEV_TOOLS_REMOTE_SECRET);
@@ -269,8 +254,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
     }
 
     private boolean isSpringBootRepackage() {
-        MavenProject project = getProject();
-        Plugin plugin = MavenUtil.getPluginOfAnyGroupId(project, SpringBootConfigurationHelper.SPRING_BOOT_MAVEN_PLUGIN_ARTIFACT_ID);
+        Plugin plugin = getProjectFacts().getPluginOfAnyGroupId(SpringBootConfigurationHelper.SPRING_BOOT_MAVEN_PLUGIN_ARTIFACT_ID);
         if (plugin != null) {
             Map<String, PluginExecution> executionsAsMap = plugin.getExecutionsAsMap();
             if (executionsAsMap != null) {
@@ -287,7 +271,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
     }
 
     private File getSpringBootDevToolsJar() throws IOException {
-        String version = SpringBootUtil.getSpringBootDevToolsVersion(getProject()).orElseThrow(() -> new IllegalStateException("Unable to find the spring-boot version"));
+        String version = SpringBootUtil.getSpringBootVersion(getProjectFacts()).orElseThrow(() -> new IllegalStateException("Unable to find the spring-boot version"));
         return getContext().getArtifactResolver().resolveArtifact(SpringBootConfigurationHelper.SPRING_BOOT_GROUP_ID, SpringBootConfigurationHelper.SPRING_BOOT_DEVTOOLS_ARTIFACT_ID, version, "jar");
     }
 
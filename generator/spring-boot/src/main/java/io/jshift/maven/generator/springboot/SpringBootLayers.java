@@ -0,0 +1,105 @@
+package io.jshift.maven.generator.springboot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Splits a Spring Boot fat jar into layers, one directory per layer. Each layer
+ * directory holds the exploded fat jar content belonging to this layer, so that
+ * all layers copied on top of each other result in the exploded fat jar.
+ * <p>
+ * The layers are ordered from the least to the most frequently changing content:
+ * released dependencies, the Spring Boot loader, snapshot dependencies and finally
+ * the application classes and resources.
+ */
+class SpringBootLayers {
+
+    static final String DEPENDENCIES = "dependencies";
+    static final String SPRING_BOOT_LOADER = "spring-boot-loader";
+    static final String SNAPSHOT_DEPENDENCIES = "snapshot-dependencies";
+    static final String APPLICATION = "application";
+
+    private static final List<String> ALL_LAYERS =
+        Arrays.asList(DEPENDENCIES, SPRING_BOOT_LOADER, SNAPSHOT_DEPENDENCIES, APPLICATION);
+
+    private static final String LIB_PREFIX = "BOOT-INF/lib/";
+    private static final String LOADER_PREFIX = "org/springframework/boot/loader/";
+
+    // Remembers which fat jar has been extracted, so that an unchanged jar isn't extracted again
+    private static final String MARKER_FILE = ".fat-jar";
+
+    private SpringBootLayers() { }
+
+    /**
+     * Extract the given fat jar into one directory per layer below the given directory.
+     * Nothing is done if the same fat jar has been extracted there already.
+     *
+     * @param fatJar the fat jar to split
+     * @param layersDir directory holding the layer directories. Its content is replaced.
+     * @return names of the layers which have content, in the order in which they should be added to the image
+     * @throws IOException if extracting fails
+     */
+    static List<String> extract(File fatJar, File layersDir) throws IOException {
+        String fingerprint = fatJar.getAbsolutePath() + "\n" + fatJar.length() + "\n" + fatJar.lastModified();
+        File marker = new File(layersDir, MARKER_FILE);
+        if (marker.isFile() && fingerprint.equals(new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8))) {
+            return getLayersWithContent(layersDir);
+        }
+
+        FileUtils.deleteDirectory(layersDir);
+        Path root = layersDir.toPath().toAbsolutePath().normalize();
+        try (ZipFile zip = new ZipFile(fatJar)) {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                Path target = root.resolve(getLayer(entry.getName())).resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Entry " + entry.getName() + " of " + fatJar + " points outside of the archive");
+                }
+                Files.createDirectories(target.getParent());
+                try (InputStream is = zip.getInputStream(entry)) {
+                    Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        // Written last, so that an interrupted extraction is redone next time
+        Files.write(marker.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+        return getLayersWithContent(layersDir);
+    }
+
+    static String getLayer(String entryName) {
+        if (entryName.startsWith(LIB_PREFIX)) {
+            return entryName.contains("SNAPSHOT") ? SNAPSHOT_DEPENDENCIES : DEPENDENCIES;
+        }
+        if (entryName.startsWith(LOADER_PREFIX)) {
+            return SPRING_BOOT_LOADER;
+        }
+        return APPLICATION;
+    }
+
+    // Layers without content are skipped since a COPY of a missing directory fails
+    private static List<String> getLayersWithContent(File layersDir) {
+        List<String> ret = new ArrayList<>();
+        for (String layer : ALL_LAYERS) {
+            if (new File(layersDir, layer).isDirectory()) {
+                ret.add(layer);
+            }
+        }
+        return ret;
+    }
+}
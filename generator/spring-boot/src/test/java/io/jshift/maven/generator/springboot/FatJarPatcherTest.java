@@ -0,0 +1,133 @@
+package io.jshift.maven.generator.springboot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FatJarPatcherTest {
+
+    private static final byte[] LAUNCH_SCRIPT = "#!/bin/bash\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaceAndAddEntries() throws IOException {
+        File jar = createFatJar(null);
+        checkPatchedJar(jar);
+    }
+
+    @Test
+    public void executableJarWithLaunchScript() throws IOException {
+        File jar = createFatJar(LAUNCH_SCRIPT);
+        checkPatchedJar(jar);
+
+        byte[] start = new byte[LAUNCH_SCRIPT.length];
+        try (InputStream is = Files.newInputStream(jar.toPath())) {
+            assertEquals(start.length, is.read(start));
+        }
+        assertArrayEquals(LAUNCH_SCRIPT, start);
+    }
+
+    private void checkPatchedJar(File jar) throws IOException {
+        File lib = writeFile("devtools.jar", "new devtools");
+        File props = writeFile("application.properties", "a=b");
+        Map<String, File> entries = new LinkedHashMap<>();
+        entries.put("BOOT-INF/lib/devtools.jar", lib);
+        entries.put("BOOT-INF/classes/application.properties", props);
+
+        FatJarPatcher.patch(jar, entries);
+
+        try (ZipFile zip = new ZipFile(jar)) {
+            List<String> names = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+                names.add(e.nextElement().getName());
+            }
+            assertEquals(5, names.size());
+            assertTrue(names.contains("BOOT-INF/classes/Main.class"));
+            assertEquals("BOOT-INF/lib/devtools.jar", names.get(3));
+            assertEquals("BOOT-INF/classes/application.properties", names.get(4));
+
+            assertEquals("manifest", read(zip, "META-INF/MANIFEST.MF"));
+            assertEquals("main class", read(zip, "BOOT-INF/classes/Main.class"));
+            assertEquals("other lib", read(zip, "BOOT-INF/lib/other.jar"));
+            assertEquals("new devtools", read(zip, "BOOT-INF/lib/devtools.jar"));
+            assertEquals("a=b", read(zip, "BOOT-INF/classes/application.properties"));
+            assertEquals(ZipEntry.STORED, zip.getEntry("BOOT-INF/lib/devtools.jar").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("BOOT-INF/classes/Main.class").getMethod());
+            assertEquals("fat jar", zip.getComment());
+        }
+    }
+
+    private File createFatJar(byte[] launchScript) throws IOException {
+        File jar = folder.newFile("app.jar");
+        try (OutputStream os = new FileOutputStream(jar)) {
+            if (launchScript != null) {
+                os.write(launchScript);
+            }
+            ZipOutputStream out = new ZipOutputStream(os);
+            putEntry(out, "META-INF/MANIFEST.MF", "manifest", ZipEntry.DEFLATED);
+            putEntry(out, "BOOT-INF/classes/Main.class", "main class", ZipEntry.DEFLATED);
+            putEntry(out, "BOOT-INF/lib/devtools.jar", "old devtools", ZipEntry.STORED);
+            putEntry(out, "BOOT-INF/lib/other.jar", "other lib", ZipEntry.STORED);
+            out.setComment("fat jar");
+            out.finish();
+        }
+        return jar;
+    }
+
+    private void putEntry(ZipOutputStream out, String name, String content, int method) throws IOException {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String read(ZipFile zip, String name) throws IOException {
+        try (InputStream is = zip.getInputStream(zip.getEntry(name))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int read = is.read(buffer); read > -1; read = is.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
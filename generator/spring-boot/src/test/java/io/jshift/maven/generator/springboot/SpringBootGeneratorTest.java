@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import io.jshift.kit.common.util.ProjectFacts;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.maven.generator.api.GeneratorContext;
 import mockit.Expectations;
@@ -73,6 +74,7 @@ public class SpringBootGeneratorTest {
     private GeneratorContext createGeneratorContext() throws IOException {
         new Expectations() {{
             context.getProject(); result = project;
+            context.getProjectFacts(); result = new ProjectFacts(project); minTimes = 0;
             project.getBuild(); result = build;
             String tempDir = Files.createTempDirectory("springboot-test-project").toFile().getAbsolutePath();
 
@@ -0,0 +1,83 @@
+package io.jshift.maven.generator.springboot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringBootLayersTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void extractLayers() throws IOException {
+        File fatJar = createFatJar("META-INF/MANIFEST.MF",
+                                   "org/springframework/boot/loader/JarLauncher.class",
+                                   "BOOT-INF/lib/spring-core-5.1.0.RELEASE.jar",
+                                   "BOOT-INF/lib/my-lib-1.0-SNAPSHOT.jar",
+                                   "BOOT-INF/classes/Main.class");
+        File layersDir = new File(folder.getRoot(), "layers");
+
+        List<String> layers = SpringBootLayers.extract(fatJar, layersDir);
+
+        assertEquals(Arrays.asList("dependencies", "spring-boot-loader", "snapshot-dependencies", "application"), layers);
+        assertTrue(new File(layersDir, "dependencies/BOOT-INF/lib/spring-core-5.1.0.RELEASE.jar").isFile());
+        assertTrue(new File(layersDir, "snapshot-dependencies/BOOT-INF/lib/my-lib-1.0-SNAPSHOT.jar").isFile());
+        assertTrue(new File(layersDir, "spring-boot-loader/org/springframework/boot/loader/JarLauncher.class").isFile());
+        assertTrue(new File(layersDir, "application/BOOT-INF/classes/Main.class").isFile());
+        assertTrue(new File(layersDir, "application/META-INF/MANIFEST.MF").isFile());
+    }
+
+    @Test
+    public void emptyLayersAreSkipped() throws IOException {
+        File fatJar = createFatJar("BOOT-INF/lib/spring-core-5.1.0.RELEASE.jar", "BOOT-INF/classes/Main.class");
+        File layersDir = new File(folder.getRoot(), "layers");
+
+        assertEquals(Arrays.asList("dependencies", "application"), SpringBootLayers.extract(fatJar, layersDir));
+        assertFalse(new File(layersDir, "snapshot-dependencies").exists());
+    }
+
+    @Test
+    public void unchangedFatJarIsNotExtractedAgain() throws IOException {
+        File fatJar = createFatJar("BOOT-INF/classes/Main.class");
+        File layersDir = new File(folder.getRoot(), "layers");
+        SpringBootLayers.extract(fatJar, layersDir);
+
+        File extracted = new File(layersDir, "application/BOOT-INF/classes/Main.class");
+        assertTrue(extracted.delete());
+        SpringBootLayers.extract(fatJar, layersDir);
+        assertFalse(extracted.exists());
+
+        // A changed fat jar replaces the old layers completely
+        createFatJar("BOOT-INF/classes/Other.class");
+        fatJar.setLastModified(fatJar.lastModified() + 10000);
+        assertEquals(Arrays.asList("application"), SpringBootLayers.extract(fatJar, layersDir));
+        assertTrue(new File(layersDir, "application/BOOT-INF/classes/Other.class").isFile());
+        assertEquals(1, new File(layersDir, "application/BOOT-INF/classes").list().length);
+    }
+
+    private File createFatJar(String... entries) throws IOException {
+        File jar = new File(folder.getRoot(), "app.jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(entry.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -18,7 +18,6 @@ package io.jshift.maven.generator.thorntail.v2;
 import java.util.List;
 import java.util.Map;
 
-import io.jshift.kit.common.util.MavenUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.javaexec.JavaExecGenerator;
@@ -33,9 +32,9 @@ public class ThorntailV2Generator extends JavaExecGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs)
-                && MavenUtil.hasPlugin(getProject(), "io.thorntail", "thorntail-maven-plugin")
+                && getProjectFacts().hasPlugin("io.thorntail", "thorntail-maven-plugin")
                 // if there's thorntail-kernel, it's Thorntail v4
-                && !MavenUtil.hasDependency(getProject(), "io.thorntail", "thorntail-kernel");
+                && !getProjectFacts().hasDependency("io.thorntail", "thorntail-kernel");
     }
 
     @Override
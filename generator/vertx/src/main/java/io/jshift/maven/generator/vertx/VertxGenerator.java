@@ -24,7 +24,6 @@ import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.javaexec.JavaExecGenerator;
 import org.apache.maven.plugin.MojoExecutionException;
-import org.apache.maven.project.MavenProject;
 
 /**
  * Vert.x Generator.
@@ -52,8 +51,8 @@ public class VertxGenerator extends JavaExecGenerator {
   @Override
   public boolean isApplicable(List<ImageConfiguration> configs) throws MojoExecutionException {
     return shouldAddImageConfiguration(configs)
-        && (MavenUtil.hasPlugin(getProject(), Constants.VERTX_MAVEN_PLUGIN_GROUP, Constants.VERTX_MAVEN_PLUGIN_ARTIFACT)
-        || MavenUtil.hasDependency(getProject(), Constants.VERTX_GROUPID, null));
+        && (getProjectFacts().hasPlugin(Constants.VERTX_MAVEN_PLUGIN_GROUP, Constants.VERTX_MAVEN_PLUGIN_ARTIFACT)
+        || getProjectFacts().hasDependency(Constants.VERTX_GROUPID, null));
   }
 
   @Override
@@ -65,13 +64,13 @@ public class VertxGenerator extends JavaExecGenerator {
       opts.add("-Dvertx.disableDnsResolver=true");
     }
 
-    if (MavenUtil.hasDependency(getProject(), Constants.VERTX_GROUPID, Constants.VERTX_DROPWIZARD)) {
+    if (getProjectFacts().hasDependency(Constants.VERTX_GROUPID, Constants.VERTX_DROPWIZARD)) {
       opts.add("-Dvertx.metrics.options.enabled=true");
       opts.add("-Dvertx.metrics.options.jmxEnabled=true");
       opts.add("-Dvertx.metrics.options.jmxDomain=vertx");
     }
 
-    if (! contains("-Djava.net.preferIPv4Stack", opts)  && MavenUtil.hasDependency(getProject(), Constants.VERTX_GROUPID, Constants.VERTX_INFINIPAN)) {
+    if (! contains("-Djava.net.preferIPv4Stack", opts)  && getProjectFacts().hasDependency(Constants.VERTX_GROUPID, Constants.VERTX_INFINIPAN)) {
       opts.add("-Djava.net.preferIPv4Stack=true");
     }
 
@@ -110,9 +109,8 @@ public class VertxGenerator extends JavaExecGenerator {
   }
 
   private boolean isUsingFatJarPlugin() {
-    MavenProject project = getProject();
-    return MavenUtil.hasPlugin(project, Constants.SHADE_PLUGIN_GROUP, Constants.SHADE_PLUGIN_ARTIFACT) ||
-           MavenUtil.hasPlugin(project, Constants.VERTX_MAVEN_PLUGIN_GROUP, Constants.VERTX_MAVEN_PLUGIN_ARTIFACT);
+    return getProjectFacts().hasPlugin(Constants.SHADE_PLUGIN_GROUP, Constants.SHADE_PLUGIN_ARTIFACT) ||
+           getProjectFacts().hasPlugin(Constants.VERTX_MAVEN_PLUGIN_GROUP, Constants.VERTX_MAVEN_PLUGIN_ARTIFACT);
   }
 
   @Override
@@ -19,6 +19,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
+import io.jshift.kit.common.util.ProjectFacts;
+import io.jshift.maven.generator.webapp.handler.BuildDirectoryIndex;
 import io.jshift.maven.generator.webapp.handler.JettyAppSeverHandler;
 import io.jshift.maven.generator.webapp.handler.TomcatAppSeverHandler;
 import io.jshift.maven.generator.webapp.handler.WildFlyAppSeverHandler;
@@ -34,12 +36,18 @@ class AppServerDetector {
     private final HashMap<String, AppServerHandler> serverHandlerMap;
 
     AppServerDetector(MavenProject project) {
+        this(project, new ProjectFacts(project));
+    }
+
+    AppServerDetector(MavenProject project, ProjectFacts projectFacts) {
+        // The build directory is listed only once for all handlers
+        BuildDirectoryIndex buildDirectoryIndex = new BuildDirectoryIndex(project);
         // Add new handlers to this list for new appservers
         serverHandlers =
             Arrays.asList(
-                new JettyAppSeverHandler(project),
-                new WildFlyAppSeverHandler(project),
-                defaultHandler = new TomcatAppSeverHandler(project)
+                new JettyAppSeverHandler(project, projectFacts, buildDirectoryIndex),
+                new WildFlyAppSeverHandler(project, projectFacts, buildDirectoryIndex),
+                defaultHandler = new TomcatAppSeverHandler(project, projectFacts, buildDirectoryIndex)
                          );
         serverHandlerMap = new HashMap<>();
         for (AppServerHandler handler : serverHandlers) {
@@ -15,13 +15,21 @@
  */
 package io.jshift.maven.generator.webapp;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import io.jshift.kit.common.Configs;
-import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.FileUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.kit.config.image.build.Arguments;
 import io.jshift.kit.config.image.build.AssemblyConfiguration;
@@ -31,6 +39,8 @@ import io.jshift.kit.config.image.build.RuntimeMode;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.api.support.BaseGenerator;
 import io.jshift.maven.generator.webapp.handler.CustomAppServerHandler;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
 
 import static io.jshift.kit.config.image.build.util.BuildLabelUtil.addSchemaLabels;
 
@@ -42,6 +52,14 @@ import static io.jshift.kit.config.image.build.util.BuildLabelUtil.addSchemaLabe
  */
 public class WebAppGenerator extends BaseGenerator {
 
+    private static final String WEB_INF_LIB = "WEB-INF/lib";
+    private static final String WEB_INF_CLASSES = "WEB-INF/classes";
+
+    // Layers of an exploded war, ordered from the least to the most frequently changing content
+    static final String LAYER_LIB = "lib";
+    static final String LAYER_RESOURCES = "resources";
+    static final String LAYER_CLASSES = "classes";
+
     private enum Config implements Configs.Key {
         // App server to use (like 'tomcat', 'jetty', 'wildfly'
         server,
@@ -59,7 +77,12 @@ public class WebAppGenerator extends BaseGenerator {
         path {{ d = "/"; }},
 
         // Ports to expose as a command separated list
-        ports;
+        ports,
+
+        // Whether to deploy the exploded war from the build directory instead of the war archive, with the
+        // libraries, the web resources and the classes in separate image layers. The app server must deploy
+        // directories found in its deployment directory, like Tomcat and Jetty do.
+        exploded {{ d = "false"; }};
 
         protected String d;
 
@@ -73,7 +96,7 @@ public class WebAppGenerator extends BaseGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs) &&
-               MavenUtil.hasPlugin(getProject(), "org.apache.maven.plugins", "maven-war-plugin");
+               getProjectFacts().hasPlugin("org.apache.maven.plugins", "maven-war-plugin");
     }
 
     @Override
@@ -119,7 +142,7 @@ public class WebAppGenerator extends BaseGenerator {
             // If a base image is provided use this exclusively and dont do a custom lookup
             return createCustomAppServerHandler(from);
         } else {
-            return new AppServerDetector(context.getProject()).detect(getConfig(Config.server));
+            return new AppServerDetector(context.getProject(), context.getProjectFacts()).detect(getConfig(Config.server));
         }
     }
 
@@ -144,8 +167,13 @@ public class WebAppGenerator extends BaseGenerator {
         }
         getProject().getProperties().setProperty("jshift.generator.webapp.path",path);
         AssemblyConfiguration.Builder builder = new AssemblyConfiguration.Builder()
-                .targetDir(getDeploymentDir(handler))
-                .descriptorRef("webapp");
+                .targetDir(getDeploymentDir(handler));
+        File explodedWar = getExplodedWar();
+        if (explodedWar != null) {
+            addExplodedWarAssembly(builder, explodedWar, path);
+        } else {
+            builder.descriptorRef("webapp");
+        }
         String user = getUser(handler);
         if (user != null) {
             builder.user(user);
@@ -153,6 +181,75 @@ public class WebAppGenerator extends BaseGenerator {
         return builder.build();
     }
 
+    // The directory into which the war plugin assembles the webapp, if exploded deployment is enabled
+    private File getExplodedWar() {
+        if (!Boolean.parseBoolean(getConfig(Config.exploded))) {
+            return null;
+        }
+        File explodedWar = new File(getProject().getBuild().getDirectory(), getProject().getBuild().getFinalName());
+        if (!new File(explodedWar, "WEB-INF").isDirectory()) {
+            log.warn("No exploded war found in %s, adding the war archive instead", explodedWar);
+            return null;
+        }
+        return explodedWar;
+    }
+
+    // The war's libraries, its web resources and its classes in the directory named after the context path,
+    // each in its own layer. Empty layers are left out since a COPY of a missing directory fails.
+    private void addExplodedWarAssembly(AssemblyConfiguration.Builder builder, File explodedWar, String path) {
+        String directory = FileUtil.getRelativePath(getProject().getBasedir(), explodedWar).getPath();
+        Assembly assembly = new Assembly();
+        List<String> layers = new ArrayList<>();
+        if (hasFiles(new File(explodedWar, WEB_INF_LIB))) {
+            assembly.addFileSet(createExplodedWarFileSet(directory, LAYER_LIB, path, WEB_INF_LIB + "/**"));
+            layers.add(LAYER_LIB);
+        }
+        if (hasResources(explodedWar)) {
+            FileSet fileSet = createExplodedWarFileSet(directory, LAYER_RESOURCES, path, "**");
+            fileSet.addExclude(WEB_INF_LIB + "/**");
+            fileSet.addExclude(WEB_INF_CLASSES + "/**");
+            assembly.addFileSet(fileSet);
+            layers.add(LAYER_RESOURCES);
+        }
+        if (hasFiles(new File(explodedWar, WEB_INF_CLASSES))) {
+            assembly.addFileSet(createExplodedWarFileSet(directory, LAYER_CLASSES, path, WEB_INF_CLASSES + "/**"));
+            layers.add(LAYER_CLASSES);
+        }
+        log.verbose("Adding exploded war %s as %s in layers %s", directory, path, layers);
+        builder.assemblyDef(assembly);
+        builder.layers(layers);
+    }
+
+    private FileSet createExplodedWarFileSet(String directory, String layer, String path, String include) {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory(directory);
+        fileSet.setOutputDirectory(layer + "/" + path);
+        fileSet.addInclude(include);
+        return fileSet;
+    }
+
+    private boolean hasFiles(File dir) {
+        return hasFiles(dir, file -> true);
+    }
+
+    // Anything besides the libraries and the classes
+    private boolean hasResources(File explodedWar) {
+        Path lib = explodedWar.toPath().resolve(WEB_INF_LIB);
+        Path classes = explodedWar.toPath().resolve(WEB_INF_CLASSES);
+        return hasFiles(explodedWar, file -> !file.startsWith(lib) && !file.startsWith(classes));
+    }
+
+    private boolean hasFiles(File dir, Predicate<Path> filter) {
+        if (!dir.isDirectory()) {
+            return false;
+        }
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            return files.anyMatch(file -> Files.isRegularFile(file) && filter.test(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     // To be called **only** from customize() as they require an already
     // initialized appServerHandler:
     protected String getFrom(AppServerHandler handler) {
@@ -15,12 +15,10 @@
  */
 package io.jshift.maven.generator.webapp.handler;
 
-import java.io.File;
-
+import io.jshift.kit.common.util.ProjectFacts;
 import io.jshift.maven.generator.api.DefaultImageLookup;
 import io.jshift.maven.generator.webapp.AppServerHandler;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.shared.utils.io.DirectoryScanner;
 
 /**
  * @author kameshs
@@ -29,11 +27,19 @@ public abstract class AbstractAppServerHandler implements AppServerHandler {
 
     protected final DefaultImageLookup imageLookup;
     protected final MavenProject project;
+    protected final ProjectFacts projectFacts;
     private final String name;
+    private final BuildDirectoryIndex buildDirectoryIndex;
 
     protected AbstractAppServerHandler(String name, MavenProject project) {
+        this(name, project, new ProjectFacts(project), new BuildDirectoryIndex(project));
+    }
+
+    protected AbstractAppServerHandler(String name, MavenProject project, ProjectFacts projectFacts, BuildDirectoryIndex buildDirectoryIndex) {
         this.project = project;
+        this.projectFacts = projectFacts;
         this.name = name;
+        this.buildDirectoryIndex = buildDirectoryIndex;
         this.imageLookup = new DefaultImageLookup(this.getClass());
     }
 
@@ -49,17 +55,7 @@ public abstract class AbstractAppServerHandler implements AppServerHandler {
      * @return list of files found
      */
     protected String[] scanFiles(String... patterns) {
-        String buildOutputDir = project.getBuild().getDirectory();
-        if (buildOutputDir != null && new File(buildOutputDir).exists()) {
-            DirectoryScanner directoryScanner = new DirectoryScanner();
-            directoryScanner.setBasedir(buildOutputDir);
-            directoryScanner.setIncludes(patterns);
-            directoryScanner.scan();
-            return directoryScanner.getIncludedFiles();
-        } else {
-            return new String[0];
-        }
-
+        return buildDirectoryIndex.scanFiles(patterns);
     }
 
     /**
@@ -70,6 +66,6 @@ public abstract class AbstractAppServerHandler implements AppServerHandler {
      * @return true if the one such file exists least
      */
     protected boolean hasOneOf(String... patterns) {
-        return scanFiles(patterns).length > 0;
+        return buildDirectoryIndex.hasOneOf(patterns);
     }
 }
@@ -0,0 +1,286 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.jshift.maven.generator.webapp.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Listing of all files below a project's build directory, which is shared by the
+ * app server handlers so that the directory is walked only once during detection.
+ * <p>
+ * The listing is created lazily on the first lookup, with the sub directories walked
+ * in parallel. Lookups use Maven's include syntax (<code>*</code>, <code>?</code>
+ * and <code>**</code>) and are answered from the listing without touching the file
+ * system again.
+ */
+public class BuildDirectoryIndex {
+
+    private static final String REGEX_PREFIX = "%regex[";
+    private static final String ANT_PREFIX = "%ant[";
+
+    private static final Map<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+
+    private final String buildDirectory;
+
+    // Relative paths of all files, with '/' as separator
+    private List<String> files;
+
+    // Relative paths indexed by file name for patterns ending with a literal file name
+    private Map<String, List<String>> filesByName;
+
+    public BuildDirectoryIndex(MavenProject project) {
+        this(project.getBuild() != null ? project.getBuild().getDirectory() : null);
+    }
+
+    public BuildDirectoryIndex(String buildDirectory) {
+        this.buildDirectory = buildDirectory;
+    }
+
+    /**
+     * Find all files matching one of the given patterns
+     *
+     * @param patterns one or more patterns which fit to Maven's include syntax
+     * @return relative paths of the files found, using the platform's separator
+     */
+    public String[] scanFiles(String... patterns) {
+        List<String> ret = new ArrayList<>();
+        for (String path : getMatchingFiles(patterns, false)) {
+            ret.add(path.replace('/', File.separatorChar));
+        }
+        return ret.toArray(new String[0]);
+    }
+
+    /**
+     * Check whether at least one file matches one of the given patterns
+     *
+     * @param patterns one or more patterns which fit to Maven's include syntax
+     * @return true if such a file exists
+     */
+    public boolean hasOneOf(String... patterns) {
+        return !getMatchingFiles(patterns, true).isEmpty();
+    }
+
+    private List<String> getMatchingFiles(String[] patterns, boolean firstOnly) {
+        ensureIndex();
+        List<String> ret = new ArrayList<>();
+        for (String path : getCandidates(patterns)) {
+            for (String pattern : patterns) {
+                if (getPattern(pattern).matcher(path).matches()) {
+                    ret.add(path);
+                    if (firstOnly) {
+                        return ret;
+                    }
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+
+    // Only the files with a matching name need to be checked if every pattern ends with a literal name
+    private List<String> getCandidates(String[] patterns) {
+        List<String> ret = new ArrayList<>();
+        for (String pattern : patterns) {
+            String name = getLiteralFileName(pattern);
+            if (name == null) {
+                return files;
+            }
+            List<String> named = filesByName.get(name);
+            if (named != null) {
+                ret.addAll(named);
+            }
+        }
+        if (patterns.length > 1) {
+            ret = new ArrayList<>(new LinkedHashSet<>(ret));
+        }
+        return ret;
+    }
+
+    private synchronized void ensureIndex() {
+        if (files != null) {
+            return;
+        }
+        List<String> found = Collections.emptyList();
+        if (buildDirectory != null && new File(buildDirectory).isDirectory()) {
+            Path root = new File(buildDirectory).toPath();
+            found = ForkJoinPool.commonPool().invoke(new ListTask(root, "", Collections.singleton(getDirectoryKey(root, null))));
+            Collections.sort(found);
+        }
+        Map<String, List<String>> byName = new HashMap<>();
+        for (String path : found) {
+            byName.computeIfAbsent(path.substring(path.lastIndexOf('/') + 1), k -> new ArrayList<>()).add(path);
+        }
+        filesByName = byName;
+        files = found;
+    }
+
+    private static String getLiteralFileName(String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            return null;
+        }
+        String normalized = normalize(pattern);
+        String name = normalized.substring(normalized.lastIndexOf('/') + 1);
+        return name.indexOf('*') < 0 && name.indexOf('?') < 0 ? name : null;
+    }
+
+    private static Pattern getPattern(String pattern) {
+        return PATTERN_CACHE.computeIfAbsent(pattern, BuildDirectoryIndex::compile);
+    }
+
+    // Translate an include pattern into a regular expression on '/' separated paths
+    static Pattern compile(String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX) && pattern.endsWith("]")) {
+            return Pattern.compile(pattern.substring(REGEX_PREFIX.length(), pattern.length() - 1));
+        }
+        String[] segments = normalize(pattern).split("/");
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            boolean last = i == segments.length - 1;
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                regex.append(last ? ".*" : "(?:[^/]*/)*");
+                continue;
+            }
+            StringBuilder literal = new StringBuilder();
+            for (char c : segment.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? "[^/]*" : "[^/]");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            if (!last) {
+                regex.append('/');
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    // Same normalization as Maven's DirectoryScanner: unified separators and
+    // a trailing separator includes everything below
+    private static String normalize(String pattern) {
+        String ret = pattern;
+        if (ret.startsWith(ANT_PREFIX) && ret.endsWith("]")) {
+            ret = ret.substring(ANT_PREFIX.length(), ret.length() - 1);
+        }
+        ret = ret.trim().replace('\\', '/');
+        while (ret.startsWith("/")) {
+            ret = ret.substring(1);
+        }
+        if (ret.endsWith("/")) {
+            ret += "**";
+        }
+        return ret;
+    }
+
+    // Identity of a directory for loop detection. The file key is cheap, but not available everywhere.
+    private static Object getDirectoryKey(Path dir, BasicFileAttributes attributes) {
+        Object key = attributes != null ? attributes.fileKey() : null;
+        if (key == null) {
+            try {
+                key = dir.toRealPath();
+            } catch (IOException exp) {
+                key = dir.toAbsolutePath().normalize();
+            }
+        }
+        return key;
+    }
+
+    // Like Maven's DirectoryScanner, symbolic links are followed and entries which cannot be
+    // read are skipped silently. A link back to a directory above is not followed to avoid
+    // walking in circles.
+    private static class ListTask extends RecursiveTask<List<String>> {
+
+        private final Path dir;
+        private final String prefix;
+
+        // Keys of this directory and all directories above
+        private final Set<Object> ancestors;
+
+        ListTask(Path dir, String prefix, Set<Object> ancestors) {
+            this.dir = dir;
+            this.prefix = prefix;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected List<String> compute() {
+            List<ListTask> subTasks = new ArrayList<>();
+            List<String> ret = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    addEntry(entry, ret, subTasks);
+                }
+            } catch (IOException | DirectoryIteratorException exp) {
+                // Unreadable directory, keep what has been found so far
+            }
+            for (ListTask task : subTasks) {
+                ret.addAll(task.join());
+            }
+            return ret;
+        }
+
+        private void addEntry(Path entry, List<String> files, List<ListTask> subTasks) {
+            String name = entry.getFileName().toString();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            } catch (IOException exp) {
+                // Dangling link or not accessible
+                return;
+            }
+            if (attributes.isDirectory()) {
+                Object key = getDirectoryKey(entry, attributes);
+                if (!ancestors.contains(key)) {
+                    Set<Object> keys = new HashSet<>(ancestors);
+                    keys.add(key);
+                    ListTask task = new ListTask(entry, prefix + name + "/", keys);
+                    task.fork();
+                    subTasks.add(task);
+                }
+            } else if (attributes.isRegularFile()) {
+                files.add(prefix + name);
+            }
+        }
+    }
+}
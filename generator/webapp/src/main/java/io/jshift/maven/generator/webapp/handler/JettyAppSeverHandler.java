@@ -18,7 +18,7 @@ package io.jshift.maven.generator.webapp.handler;
 import java.util.Arrays;
 import java.util.List;
 
-import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.ProjectFacts;
 import org.apache.maven.project.MavenProject;
 
 /**
@@ -33,12 +33,16 @@ public class JettyAppSeverHandler extends AbstractAppServerHandler {
         super("jetty", mavenProject);
     }
 
+    public JettyAppSeverHandler(MavenProject mavenProject, ProjectFacts projectFacts, BuildDirectoryIndex buildDirectoryIndex) {
+        super("jetty", mavenProject, projectFacts, buildDirectoryIndex);
+    }
+
     @Override
     public boolean isApplicable() {
         return hasOneOf("**/WEB-INF/jetty-web.xml",
                         "**/META-INF/jetty-logging.properties") ||
-               MavenUtil.hasPlugin(project, "org.mortbay.jetty", "jetty-maven-plugin") ||
-               MavenUtil.hasPlugin(project, "org.eclipse.jetty", "jetty-maven-plugin");
+               projectFacts.hasPlugin("org.mortbay.jetty", "jetty-maven-plugin") ||
+               projectFacts.hasPlugin("org.eclipse.jetty", "jetty-maven-plugin");
     }
 
     @Override
@@ -18,7 +18,7 @@ package io.jshift.maven.generator.webapp.handler;
 import java.util.Arrays;
 import java.util.List;
 
-import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.ProjectFacts;
 import org.apache.maven.project.MavenProject;
 
 /**
@@ -32,11 +32,15 @@ public class TomcatAppSeverHandler extends AbstractAppServerHandler {
         super("tomcat", project);
     }
 
+    public TomcatAppSeverHandler(MavenProject project, ProjectFacts projectFacts, BuildDirectoryIndex buildDirectoryIndex) {
+        super("tomcat", project, projectFacts, buildDirectoryIndex);
+    }
+
     @Override
     public boolean isApplicable() {
         return hasOneOf("**/META-INF/context.xml") ||
-                MavenUtil.hasPlugin(project, "org.apache.tomcat.maven", "tomcat6-maven-plugin") ||
-                MavenUtil.hasPlugin(project, "org.apache.tomcat.maven", "tomcat7-maven-plugin");
+                projectFacts.hasPlugin("org.apache.tomcat.maven", "tomcat6-maven-plugin") ||
+                projectFacts.hasPlugin("org.apache.tomcat.maven", "tomcat7-maven-plugin");
     }
 
     @Override
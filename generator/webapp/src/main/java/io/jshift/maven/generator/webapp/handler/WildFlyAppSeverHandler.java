@@ -18,7 +18,7 @@ package io.jshift.maven.generator.webapp.handler;
 import java.util.Arrays;
 import java.util.List;
 
-import io.jshift.kit.common.util.MavenUtil;
+import io.jshift.kit.common.util.ProjectFacts;
 import org.apache.maven.project.MavenProject;
 
 /**
@@ -32,11 +32,15 @@ public class WildFlyAppSeverHandler extends AbstractAppServerHandler {
         super("wildfly", project);
     }
 
+    public WildFlyAppSeverHandler(MavenProject project, ProjectFacts projectFacts, BuildDirectoryIndex buildDirectoryIndex) {
+        super("wildfly", project, projectFacts, buildDirectoryIndex);
+    }
+
     @Override
     public boolean isApplicable() {
         return
-            !MavenUtil.hasPlugin(project, "org.wildfly.swarm", "wildfly-swarm-plugin") &&
-            !MavenUtil.hasPlugin(project, "io.thorntail", "thorntail-maven-plugin") &&
+            !projectFacts.hasPlugin("org.wildfly.swarm", "wildfly-swarm-plugin") &&
+            !projectFacts.hasPlugin("io.thorntail", "thorntail-maven-plugin") &&
             (hasOneOf("**/WEB-INF/jboss-deployment-structure.xml",
                      "**/META-INF/jboss-deployment-structure.xml",
                      "**/WEB-INF/jboss-web.xml", "**/WEB-INF/ejb-jar.xml",
@@ -45,8 +49,8 @@ public class WildFlyAppSeverHandler extends AbstractAppServerHandler {
                      "**/META-INF/*-ds.xml", "**/WEB-INF/*-ds.xml",
                      "**/WEB-INF/jboss-ejb-client.xml", "**/META-INF/jbosscmp-jdbc.xml",
                      "**/WEB-INF/jboss-webservices.xml") ||
-            MavenUtil.hasPlugin(project, "org.jboss.as.plugins", "jboss-as-maven-plugin") ||
-            MavenUtil.hasPlugin(project, "org.wildfly.plugins", "wildfly-maven-plugin"));
+            projectFacts.hasPlugin("org.jboss.as.plugins", "jboss-as-maven-plugin") ||
+            projectFacts.hasPlugin("org.wildfly.plugins", "wildfly-maven-plugin"));
     }
 
     @Override
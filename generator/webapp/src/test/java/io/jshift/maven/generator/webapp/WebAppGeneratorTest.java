@@ -0,0 +1,152 @@
+/**
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.jshift.maven.generator.webapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.jshift.kit.common.KitLogger;
+import io.jshift.kit.config.image.ImageConfiguration;
+import io.jshift.kit.config.image.build.AssemblyConfiguration;
+import io.jshift.kit.config.resource.ProcessorConfig;
+import io.jshift.maven.generator.api.GeneratorContext;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.assembly.model.Assembly;
+import org.apache.maven.plugins.assembly.model.FileSet;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class WebAppGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void explodedWarInLayers() throws IOException, ReflectiveOperationException {
+        touch("target/demo/WEB-INF/lib/commons-lang3.jar");
+        touch("target/demo/WEB-INF/classes/Main.class");
+        touch("target/demo/WEB-INF/web.xml");
+        touch("target/demo/index.html");
+
+        AssemblyConfiguration assembly = createAssembly("true");
+
+        assertEquals("/deployments", assembly.getTargetDir());
+        assertNull(assembly.getDescriptorRef());
+        assertEquals(Arrays.asList("lib", "resources", "classes"), assembly.getLayers());
+        List<FileSet> fileSets = getInlineAssembly(assembly).getFileSets();
+        assertEquals(3, fileSets.size());
+        assertEquals("target" + File.separator + "demo", fileSets.get(0).getDirectory());
+        assertEquals("lib/ROOT", fileSets.get(0).getOutputDirectory());
+        assertEquals(Collections.singletonList("WEB-INF/lib/**"), fileSets.get(0).getIncludes());
+        assertEquals(Arrays.asList("WEB-INF/lib/**", "WEB-INF/classes/**"), fileSets.get(1).getExcludes());
+        assertEquals("classes/ROOT", fileSets.get(2).getOutputDirectory());
+    }
+
+    @Test
+    public void explodedWarLayersWithUser() throws IOException {
+        touch("target/demo/WEB-INF/lib/commons-lang3.jar");
+        touch("target/demo/WEB-INF/classes/Main.class");
+        touch("target/demo/index.html");
+
+        // The layers are copied with the user's ownership, see DockerAssemblyManagerTest.testLayeredAssemblyWithUser
+        AssemblyConfiguration assembly = createImage("true", "jboss:jboss:jboss").getBuildConfiguration().getAssemblyConfiguration();
+        assertEquals("jboss:jboss:jboss", assembly.getUser());
+        assertEquals(Arrays.asList("lib", "resources", "classes"), assembly.getLayers());
+    }
+
+    @Test
+    public void emptyLayersAreSkipped() throws IOException {
+        touch("target/demo/WEB-INF/classes/Main.class");
+        new File(folder.getRoot(), "target/demo/WEB-INF/lib").mkdirs();
+
+        assertEquals(Collections.singletonList("classes"), createAssembly("true").getLayers());
+    }
+
+    @Test
+    public void warArchiveByDefault() throws IOException {
+        touch("target/demo/WEB-INF/web.xml");
+
+        AssemblyConfiguration assembly = createAssembly(null);
+        assertEquals("webapp", assembly.getDescriptorRef());
+        assertNull(assembly.getLayers());
+    }
+
+    @Test
+    public void warArchiveWithoutExplodedWar() throws IOException {
+        assertEquals("webapp", createAssembly("true").getDescriptorRef());
+    }
+
+    private AssemblyConfiguration createAssembly(String exploded) {
+        return createImage(exploded, null).getBuildConfiguration().getAssemblyConfiguration();
+    }
+
+    private ImageConfiguration createImage(String exploded, String user) {
+        Build build = new Build();
+        build.setDirectory(new File(folder.getRoot(), "target").getAbsolutePath());
+        build.setFinalName("demo");
+        Model model = new Model();
+        model.setGroupId("io.jshift");
+        model.setArtifactId("demo");
+        model.setVersion("1.0");
+        model.setBuild(build);
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(folder.getRoot(), "pom.xml"));
+
+        TreeMap<String, Object> webappConfig = new TreeMap<>();
+        webappConfig.put("from", "tomcat:9");
+        if (exploded != null) {
+            webappConfig.put("exploded", exploded);
+        }
+        if (user != null) {
+            webappConfig.put("user", user);
+        }
+        Map<String, TreeMap> config = Collections.singletonMap("webapp", webappConfig);
+        GeneratorContext context = new GeneratorContext.Builder()
+            .project(project)
+            .logger(new KitLogger.StdoutLogger())
+            .config(new ProcessorConfig(null, null, config))
+            .build();
+
+        List<ImageConfiguration> images = new WebAppGenerator(context).customize(new ArrayList<>(), false);
+        assertEquals(1, images.size());
+        return images.get(0);
+    }
+
+    private Assembly getInlineAssembly(AssemblyConfiguration config) throws ReflectiveOperationException {
+        Field inline = AssemblyConfiguration.class.getDeclaredField("inline");
+        inline.setAccessible(true);
+        return (Assembly) inline.get(config);
+    }
+
+    private void touch(String path) throws IOException {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+    }
+}
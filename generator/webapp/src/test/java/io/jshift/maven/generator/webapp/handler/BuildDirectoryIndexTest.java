@@ -0,0 +1,107 @@
+package io.jshift.maven.generator.webapp.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeNoException;
+import static org.junit.Assume.assumeTrue;
+
+public class BuildDirectoryIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void matchIncludePatterns() throws IOException {
+        createFiles("WEB-INF/jboss-web.xml",
+                    "app/META-INF/foo-jms.xml",
+                    "app/META-INF/persistence.xml",
+                    "classes/a/b/c.txt");
+        BuildDirectoryIndex index = new BuildDirectoryIndex(folder.getRoot().getPath());
+
+        assertTrue(index.hasOneOf("**/WEB-INF/jboss-web.xml"));
+        assertTrue(index.hasOneOf("**/META-INF/*-jms.xml"));
+        assertTrue(index.hasOneOf("app/META-INF/persistence.x?l"));
+        assertTrue(index.hasOneOf("classes/"));
+        assertFalse(index.hasOneOf("jboss-web.xml", "**/META-INF/context.xml", "a/**/c.txt"));
+
+        String[] found = index.scanFiles("**/META-INF/*.xml", "**/persistence.xml");
+        Arrays.sort(found);
+        assertArrayEquals(new String[] { path("app/META-INF/foo-jms.xml"), path("app/META-INF/persistence.xml") }, found);
+        assertEquals(1, index.scanFiles("classes/**/*.txt").length);
+    }
+
+    @Test
+    public void directoryIsListedOnlyOnce() throws IOException {
+        createFiles("WEB-INF/jetty-web.xml");
+        BuildDirectoryIndex index = new BuildDirectoryIndex(folder.getRoot().getPath());
+        assertTrue(index.hasOneOf("**/WEB-INF/jetty-web.xml"));
+
+        createFiles("META-INF/context.xml");
+        assertFalse(index.hasOneOf("**/META-INF/context.xml"));
+    }
+
+    @Test
+    public void missingDirectory() {
+        BuildDirectoryIndex index = new BuildDirectoryIndex(new File(folder.getRoot(), "missing").getPath());
+        assertFalse(index.hasOneOf("**"));
+        assertEquals(0, new BuildDirectoryIndex((String) null).scanFiles("**").length);
+    }
+
+    @Test
+    public void symbolicLinkCyclesAreNotFollowed() throws IOException {
+        createFiles("classes/a/b.txt");
+        File classes = new File(folder.getRoot(), "classes");
+        try {
+            Files.createSymbolicLink(new File(classes, "a/loop").toPath(), classes.toPath());
+            Files.createSymbolicLink(new File(folder.getRoot(), "linked").toPath(), new File(classes, "a").toPath());
+        } catch (UnsupportedOperationException | IOException exp) {
+            assumeNoException(exp);
+        }
+        BuildDirectoryIndex index = new BuildDirectoryIndex(folder.getRoot().getPath());
+
+        String[] found = index.scanFiles("**/b.txt");
+        Arrays.sort(found);
+        assertArrayEquals(new String[] { path("classes/a/b.txt"), path("linked/b.txt") }, found);
+    }
+
+    @Test
+    public void unreadableDirectoriesAreSkipped() throws IOException {
+        createFiles("WEB-INF/web.xml", "mounted/secret.txt");
+        File mounted = new File(folder.getRoot(), "mounted");
+        assumeTrue(mounted.setReadable(false));
+        try {
+            // Root can read it anyway
+            assumeFalse(mounted.canRead());
+            BuildDirectoryIndex index = new BuildDirectoryIndex(folder.getRoot().getPath());
+
+            assertTrue(index.hasOneOf("**/WEB-INF/web.xml"));
+            assertFalse(index.hasOneOf("**/secret.txt"));
+        } finally {
+            mounted.setReadable(true);
+        }
+    }
+
+    private void createFiles(String... paths) throws IOException {
+        for (String path : paths) {
+            File file = new File(folder.getRoot(), path);
+            file.getParentFile().mkdirs();
+            assertTrue(file.createNewFile());
+        }
+    }
+
+    private String path(String path) {
+        return path.replace('/', File.separatorChar);
+    }
+}
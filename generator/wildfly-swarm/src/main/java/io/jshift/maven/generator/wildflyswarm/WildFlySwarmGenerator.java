@@ -18,7 +18,6 @@ package io.jshift.maven.generator.wildflyswarm;
 import java.util.List;
 import java.util.Map;
 
-import io.jshift.kit.common.util.MavenUtil;
 import io.jshift.kit.config.image.ImageConfiguration;
 import io.jshift.maven.generator.api.GeneratorContext;
 import io.jshift.maven.generator.javaexec.JavaExecGenerator;
@@ -36,7 +35,7 @@ public class WildFlySwarmGenerator extends JavaExecGenerator {
 
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
-        return shouldAddImageConfiguration(configs) && MavenUtil.hasPlugin(getProject(), "org.wildfly.swarm", "wildfly-swarm-plugin");
+        return shouldAddImageConfiguration(configs) && getProjectFacts().hasPlugin("org.wildfly.swarm", "wildfly-swarm-plugin");
     }
 
     @Override